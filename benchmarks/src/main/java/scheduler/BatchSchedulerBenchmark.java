@@ -0,0 +1,55 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Scales the number of worker threads over a fixed batch of calendars, to show how scheduling
+// throughput grows with cores.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class BatchSchedulerBenchmark {
+
+    @Param({"1000"})
+    int calendars;
+
+    @Param({"500"})
+    int size;
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private List<BatchScheduler.Job> jobs;
+    private BatchScheduler scheduler;
+
+    // scheduling leaves the calendars untouched, so the same jobs serve the whole trial
+    @Setup(Level.Trial)
+    public void createScheduler() {
+        List<Event> events = CalendarGenerator.events(size, zoneId);
+        scheduler = new BatchScheduler(parallelism);
+        jobs = new ArrayList<>(calendars);
+        for (int i = 0; i < calendars; i++) {
+            SchedulerCalendar calendar = CalendarGenerator.calendar(size, events);
+            jobs.add(BatchScheduler.Job.of(calendar, CalendarGenerator.SCHEDULE_START, zoneId));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeScheduler() {
+        scheduler.close();
+    }
+
+    @Benchmark
+    public void scheduleAll(Blackhole bh) {
+        scheduler.scheduleAll(jobs, r -> bh.consume(r.getSchedule()));
+    }
+}
@@ -0,0 +1,104 @@
+package scheduler;
+
+import java.time.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+// Builds synthetic calendars of a given size for the benchmarks. Everything is derived from the
+// index of the generated object, so every fork sees exactly the same calendar.
+final class CalendarGenerator {
+
+    // a Monday; the horizon of every non-trivial size crosses DST transitions in the DST zones
+    static final LocalDate START_DATE = LocalDate.of(2021, 1, 4);
+    static final LocalDateTime SCHEDULE_START = START_DATE.atStartOfDay();
+
+    private static final LocalTime AM_MEETING = LocalTime.of(11, 0);
+    private static final LocalTime PM_MEETING = LocalTime.of(15, 0);
+    private static final Duration MEETING_LENGTH = Duration.ofMinutes(30);
+
+    private CalendarGenerator() {
+    }
+
+    // the standard 9 - 5:30 work periods, two per working day
+    static List<WorkPeriod> workPeriods(int count) {
+        List<WorkPeriod> periods = WorkPeriods.generateWorkPeriods(START_DATE, (count + 1) / 2);
+        return new ArrayList<>(periods.subList(0, count));
+    }
+
+    // two half-hour meetings per working day, one in each work period. They are fixed at local times
+    // in the schedule zone but stored in UTC, so scheduling always has to convert them.
+    static List<Event> events(int count, ZoneId zone) {
+        List<Event> events = new ArrayList<>(count);
+        for (LocalDate d : Utils.generateWorkingDays(START_DATE, (count + 1) / 2)) {
+            events.add(meeting(d, AM_MEETING, zone, "design review"));
+            if (events.size() < count) {
+                events.add(meeting(d, PM_MEETING, zone, "team sync"));
+            }
+        }
+        return events;
+    }
+
+    private static Event meeting(LocalDate date, LocalTime time, ZoneId zone, String description) {
+        ZonedDateTime start = ZonedDateTime.of(date, time, zone).withZoneSameInstant(ZoneOffset.UTC);
+        return Event.of(start, MEETING_LENGTH, description);
+    }
+
+    // tasks of between 30 minutes and 3.5 hours, about two hours on average, so that the whole
+    // list fits into the periods left free by events()
+    static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task(30 + (i * 37) % 180, "task " + i));
+        }
+        return tasks;
+    }
+
+    static Deque<TaskPart> taskParts(List<Task> tasks) {
+        Deque<TaskPart> taskParts = new ArrayDeque<>(tasks.size());
+        for (Task t : tasks) {
+            taskParts.add(TaskPart.wholeOf(t));
+        }
+        return taskParts;
+    }
+
+    static SchedulerCalendar calendar(int size, ZoneId zone) {
+        return calendar(size, events(size, zone));
+    }
+
+    // events are immutable and can be shared between calendars
+    static SchedulerCalendar calendar(int size, List<Event> events) {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriods(workPeriods(size));
+        events.forEach(calendar::addEvent);
+        tasks(size).forEach(calendar::addTask);
+        return calendar;
+    }
+
+    // 22:00 - 06:00 work periods, each filled with eight one-hour task parts so that the midnight
+    // split falls on a task part boundary and leaves the parts untouched
+    static List<WorkPeriod> overnightWorkPeriods(int count) {
+        List<WorkPeriod> periods = new ArrayList<>(count);
+        LocalDateTime start = START_DATE.atTime(22, 0);
+        for (int i = 0; i < count; i++) {
+            WorkPeriod p = WorkPeriod.of(start.plusDays(i), start.plusDays(i).plusHours(8));
+            for (int h = 0; h < 8; h++) {
+                p.addTaskPart(TaskPart.wholeOf(new Task(60, "night task " + i)));
+            }
+            periods.add(p);
+        }
+        return periods;
+    }
+
+    // four-hour events starting at 22:00 local time; every 16th one runs on for just over two days
+    static List<Event> overnightEvents(int count, ZoneId zone) {
+        List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ZonedDateTime start = ZonedDateTime.of(START_DATE.plusDays(i), LocalTime.of(22, 0), zone);
+            Duration length = i % 16 == 0 ? Duration.ofHours(50) : Duration.ofHours(4);
+            events.add(Event.of(start, length, "on call"));
+        }
+        return events;
+    }
+}
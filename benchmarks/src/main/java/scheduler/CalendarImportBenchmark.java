@@ -0,0 +1,101 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Importing a file of work periods, events and tasks, in time order, into an empty calendar: with
+// CalendarImporter, against reading it a line at a time, splitting each line and adding each object
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class CalendarImportBenchmark {
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    private Path csv;
+    private Path ndjson;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        ZoneId zone = ZoneId.of("Europe/London");
+        List<WorkPeriod> periods = CalendarGenerator.workPeriods(size);
+        List<Event> events = CalendarGenerator.events(size, zone);
+        List<Task> tasks = CalendarGenerator.tasks(size / 10);
+        csv = Files.createTempFile("calendar", ".csv");
+        ndjson = Files.createTempFile("calendar", ".ndjson");
+        try (Writer c = Files.newBufferedWriter(csv); Writer j = Files.newBufferedWriter(ndjson)) {
+            for (int i = 0; i < size; i++) {
+                WorkPeriod p = periods.get(i);
+                c.write("period," + p.getStartTime() + "," + p.getEndTime() + "\n");
+                j.write("{\"type\":\"period\",\"start\":\"" + p.getStartTime() + "\",\"end\":\"" + p.getEndTime() + "\"}\n");
+                Event e = events.get(i);
+                LocalDateTime start = e.getLocalStartDateTime(zone);
+                Duration length = Duration.between(e.getStartTime(), e.getEndTime());
+                c.write("event," + start + "," + zone + "," + length + "," + e.getDescription() + "\n");
+                j.write("{\"type\":\"event\",\"start\":\"" + start + "\",\"zone\":\"" + zone + "\",\"duration\":\"" + length
+                        + "\",\"description\":\"" + e.getDescription() + "\"}\n");
+            }
+            for (Task t : tasks) {
+                c.write("task," + t.getDuration() + "," + t.getDescription() + "\n");
+                j.write("{\"type\":\"task\",\"duration\":\"" + t.getDuration() + "\",\"description\":\"" + t.getDescription() + "\"}\n");
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(ndjson);
+    }
+
+    @Benchmark
+    public SchedulerCalendar importCsv() throws IOException {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        new CalendarImporter(calendar).importFile(csv, CalendarImporter.Format.CSV);
+        return calendar;
+    }
+
+    @Benchmark
+    public SchedulerCalendar importNdjson() throws IOException {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        new CalendarImporter(calendar).importFile(ndjson, CalendarImporter.Format.NDJSON);
+        return calendar;
+    }
+
+    @Benchmark
+    public SchedulerCalendar readLinesOneByOne() throws IOException {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        try (BufferedReader in = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] f = line.split(",", 5);
+                switch (f[0]) {
+                    case "period":
+                        calendar.addWorkPeriod(WorkPeriod.of(LocalDateTime.parse(f[1]), LocalDateTime.parse(f[2])));
+                        break;
+                    case "event":
+                        calendar.addEvent(ZonedDateTime.of(LocalDateTime.parse(f[1]), ZoneId.of(f[2])), Duration.parse(f[3]), f[4]);
+                        break;
+                    default:
+                        calendar.addTask(new Task(Duration.parse(f[1]), f[2]));
+                }
+            }
+        }
+        return calendar;
+    }
+}
@@ -0,0 +1,64 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Loading a calendar's work periods and events into an empty calendar: one by one, against in bulk, with
+// the input in order and shuffled
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class CalendarLoadBenchmark {
+
+    @Param({"1000", "100000", "500000"})
+    int size;
+
+    private List<WorkPeriod> periods;
+    private List<Event> events;
+    private List<WorkPeriod> shuffledPeriods;
+    private List<Event> shuffledEvents;
+
+    @Setup(Level.Trial)
+    public void createInput() {
+        periods = CalendarGenerator.workPeriods(size);
+        events = CalendarGenerator.events(size, ZoneId.of("Europe/London"));
+        shuffledPeriods = new ArrayList<>(periods);
+        Collections.shuffle(shuffledPeriods, new java.util.Random(size));
+        shuffledEvents = new ArrayList<>(events);
+        Collections.shuffle(shuffledEvents, new java.util.Random(size));
+    }
+
+    @Benchmark
+    public SchedulerCalendar addOneByOne() {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriods(periods);
+        events.forEach(calendar::addEvent);
+        return calendar;
+    }
+
+    @Benchmark
+    public SchedulerCalendar addOneByOneShuffled() {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriods(shuffledPeriods);
+        shuffledEvents.forEach(calendar::addEvent);
+        return calendar;
+    }
+
+    @Benchmark
+    public LoadReport loadSorted() {
+        return new SchedulerCalendar().load(periods, events);
+    }
+
+    @Benchmark
+    public LoadReport loadShuffled() {
+        return new SchedulerCalendar().load(shuffledPeriods, shuffledEvents);
+    }
+}
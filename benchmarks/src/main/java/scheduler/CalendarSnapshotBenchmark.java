@@ -0,0 +1,63 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cold start of a calendar: replaying it object by object through the add methods, against loading it
+// from a snapshot file, whole or just one record of it.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class CalendarSnapshotBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int size;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private List<WorkPeriod> workPeriods;
+    private List<Event> events;
+    private List<Task> tasks;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws IOException {
+        workPeriods = CalendarGenerator.workPeriods(size);
+        events = CalendarGenerator.events(size, zoneId);
+        tasks = CalendarGenerator.tasks(size);
+        file = Files.createTempFile("calendar", ".snapshot");
+        CalendarSnapshot.write(file, CalendarGenerator.calendar(size, events));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public SchedulerCalendar replayCalendar() {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriods(workPeriods);
+        events.forEach(calendar::addEvent);
+        tasks.forEach(calendar::addTask);
+        return calendar;
+    }
+
+    @Benchmark
+    public SchedulerCalendar loadCalendar() throws IOException {
+        return CalendarSnapshot.open(file).getCalendar();
+    }
+
+    @Benchmark
+    public WorkPeriod loadOneWorkPeriod() throws IOException {
+        return CalendarSnapshot.open(file).getWorkPeriod(size / 2);
+    }
+}
@@ -0,0 +1,66 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Three threads schedule one calendar while a fourth keeps publishing event updates to it, as a sync job
+// would. Reads never wait for writes; the writer's score shows the cost of copying the calendar.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Group)
+public class ConcurrentSchedulerCalendarBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    @Param({"Europe/London"})
+    String zone;
+
+    private ZoneId zoneId;
+    private ConcurrentSchedulerCalendar calendar;
+    private List<Event> updates;
+    private int nextUpdate;
+
+    @Setup(Level.Trial)
+    public void createCalendar() {
+        zoneId = ZoneId.of(zone);
+        List<Event> events = CalendarGenerator.events(size, zoneId);
+        calendar = new ConcurrentSchedulerCalendar()
+                .addWorkPeriods(CalendarGenerator.workPeriods(size))
+                .update(c -> {
+                    events.forEach(c::addEvent);
+                    CalendarGenerator.tasks(size).forEach(c::addTask);
+                });
+        // a small pool of updates beyond the last work period, so the calendar stops growing once each
+        // has been added; re-adding one still copies and publishes the calendar
+        ZonedDateTime afterLast = events.get(events.size() - 1).getStartTime().plusWeeks(1);
+        updates = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            updates.add(Event.of(afterLast.plusHours(i), Duration.ofMinutes(30), "synced event " + i));
+        }
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public Schedule createSchedule() {
+        return calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public ConcurrentSchedulerCalendar addEvent() {
+        Event e = updates.get(nextUpdate++ & 15);
+        return calendar.addEvent(e);
+    }
+}
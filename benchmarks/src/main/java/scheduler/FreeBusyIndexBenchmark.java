@@ -0,0 +1,65 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Booking queries against one schedule: point free/busy lookups and searches for the next free slot
+// of an hour, at times spread over the whole schedule.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class FreeBusyIndexBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    @Param({"Europe/London"})
+    String zone;
+
+    private static final int QUERIES = 1024;
+    private static final Duration SLOT = Duration.ofHours(1);
+
+    private Schedule schedule;
+    private FreeBusyIndex index;
+    private ZonedDateTime[] times;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createIndex() {
+        ZoneId zoneId = ZoneId.of(zone);
+        schedule = CalendarGenerator.calendar(size, zoneId).createTimelineSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+        index = FreeBusyIndex.of(schedule);
+        // the calendar has two periods a working day, so size / 2 working days
+        ZonedDateTime start = CalendarGenerator.SCHEDULE_START.atZone(zoneId);
+        long minutes = Math.max(1, size / 2 * 7 / 5) * 24L * 60;
+        Random random = new Random(42);
+        times = new ZonedDateTime[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            times[i] = start.plusMinutes((long) (random.nextDouble() * minutes));
+        }
+    }
+
+    @Benchmark
+    public FreeBusyIndex buildIndex() {
+        return FreeBusyIndex.of(schedule);
+    }
+
+    @Benchmark
+    public boolean isFree() {
+        return index.isFree(times[next++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public Optional<ZonedDateTime> nextFreeSlot() {
+        return index.nextFreeSlot(times[next++ & (QUERIES - 1)], SLOT);
+    }
+}
@@ -0,0 +1,53 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+// A daily standup kept as one rule against the same standup stored as one event per working day. The
+// rule's occurrences are created afresh by every schedule; the stored events are projected by it instead.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class RecurringEventBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    @Param({"Europe/London"})
+    String zone;
+
+    private ZoneId zoneId;
+    private SchedulerCalendar ruleCalendar;
+    private SchedulerCalendar storedCalendar;
+
+    @Setup(Level.Trial)
+    public void createCalendars() {
+        zoneId = ZoneId.of(zone);
+        RecurringEvent standup = RecurringEvent.onWorkingDays(LocalTime.of(9, 30), Duration.ofMinutes(15), zoneId, "standup");
+        ruleCalendar = CalendarGenerator.calendar(size, zoneId).addRecurringEvent(standup);
+
+        storedCalendar = CalendarGenerator.calendar(size, zoneId);
+        Iterator<Event> occurrences = standup.occurrencesFrom(CalendarGenerator.SCHEDULE_START.atZone(zoneId).toInstant());
+        for (int day = 0; day < (size + 1) / 2; day++) {
+            storedCalendar.addEvent(occurrences.next());
+        }
+    }
+
+    @Benchmark
+    public Schedule ruleSchedule() {
+        return ruleCalendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    public Schedule storedSchedule() {
+        return storedCalendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+}
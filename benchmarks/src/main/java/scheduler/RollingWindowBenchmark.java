@@ -0,0 +1,75 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A long-lived calendar scheduled near the end of its history, with a handful of tasks: as it is, in a
+// rolling window that keeps everything, so that only the scheduling from the schedule start is saved, and
+// in one compacted to the last week
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class RollingWindowBenchmark {
+
+    private static final int TASKS = 20;
+
+    @Param({"1000", "100000"})
+    int size;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private LocalDateTime scheduleStart;
+    private SchedulerCalendar plain;
+    private SchedulerCalendar windowed;
+    private SchedulerCalendar compacted;
+
+    @Setup(Level.Trial)
+    public void createCalendars() {
+        List<WorkPeriod> periods = CalendarGenerator.workPeriods(size);
+        List<Event> events = CalendarGenerator.events(size, zoneId);
+        scheduleStart = periods.get(size - size / 10).getStartTime().toLocalDate().atStartOfDay();
+        Clock clock = Clock.fixed(ZonedDateTime.of(scheduleStart, zoneId).toInstant(), zoneId);
+        plain = calendar(periods, events);
+        windowed = calendar(periods, events).setRollingWindow(Duration.ofDays(100_000), clock);
+        compacted = calendar(periods, events).setRollingWindow(Duration.ofDays(7), clock);
+        compacted.compact();
+    }
+
+    private static SchedulerCalendar calendar(List<WorkPeriod> periods, List<Event> events) {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriods(periods);
+        events.forEach(calendar::addEvent);
+        CalendarGenerator.tasks(TASKS).forEach(calendar::addTask);
+        return calendar;
+    }
+
+    @Benchmark
+    public Schedule plainSchedule() {
+        return plain.createSchedule(scheduleStart, zoneId);
+    }
+
+    @Benchmark
+    public Schedule windowedSchedule() {
+        return windowed.createSchedule(scheduleStart, zoneId);
+    }
+
+    @Benchmark
+    public Schedule compactedSchedule() {
+        return compacted.createSchedule(scheduleStart, zoneId);
+    }
+
+    @Benchmark
+    public Schedule plainTimelineSchedule() {
+        return plain.createTimelineSchedule(scheduleStart, zoneId);
+    }
+
+    @Benchmark
+    public Schedule compactedTimelineSchedule() {
+        return compacted.createTimelineSchedule(scheduleStart, zoneId);
+    }
+}
@@ -0,0 +1,80 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ScheduleBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;
+
+    @Param({"UTC", "Europe/London", "America/New_York", "Australia/Sydney"})
+    String zone;
+
+    private ZoneId zoneId;
+    private Schedule schedule;
+    private List<WorkPeriod> overnightPeriods;
+    private List<Event> overnightEvents;
+    private Schedule overnightSchedule;
+    private final Schedule.MidnightSplitter midnightSplitter = new Schedule.MidnightSplitter();
+
+    // rendering and midnight splitting leave their inputs untouched, so these are built once per trial
+    @Setup(Level.Trial)
+    public void createSchedule() {
+        zoneId = ZoneId.of(zone);
+        schedule = CalendarGenerator.calendar(size, zoneId).createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+        overnightPeriods = CalendarGenerator.overnightWorkPeriods(size);
+        overnightEvents = CalendarGenerator.overnightEvents(size, zoneId);
+        // a Schedule splits populated periods at midnight as it is made, so it is given empty ones
+        List<WorkPeriod> emptyPeriods = new ArrayList<>(size);
+        overnightPeriods.forEach(p -> emptyPeriods.add(WorkPeriod.of(p.getStartTime(), p.getEndTime())));
+        overnightSchedule = new Schedule(zoneId, emptyPeriods, new TreeSet<>(overnightEvents), true);
+    }
+
+    @Benchmark
+    public String scheduleToString() {
+        return schedule.toString();
+    }
+
+    // streams the rendering to a writer that discards it, as an export to a file or socket would
+    @Benchmark
+    public void scheduleWriteTo() throws IOException {
+        schedule.writeTo(Writer.nullWriter());
+    }
+
+    // one operation splits every overnight period and event of the calendar
+    @Benchmark
+    public void splitAtAllMidnights(Blackhole bh) {
+        for (WorkPeriod p : overnightPeriods) {
+            midnightSplitter.splitAtAllMidnights(p, zoneId).forEach(bh::consume);
+        }
+        for (Event e : overnightEvents) {
+            midnightSplitter.splitAtAllMidnights(e, zoneId).forEach(bh::consume);
+        }
+    }
+
+    // the same overnight periods and events, presented a day at a time without splitting them
+    @Benchmark
+    public void daySlices(Blackhole bh) {
+        for (Iterator<DaySlice> days = overnightSchedule.dayIterator(); days.hasNext(); ) {
+            DaySlice day = days.next();
+            day.getPeriods().forEach(bh::consume);
+            day.getEvents().forEach(bh::consume);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// The same schedules asked for over and over, as dashboards do: created each time, and through a cache
+// that holds them all
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ScheduleCacheBenchmark {
+
+    private static final int STARTS = 8;
+
+    @Param({"1000", "10000"})
+    int size;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private SchedulerCalendar calendar;
+    private ScheduleCache cache;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createCalendar() {
+        calendar = CalendarGenerator.calendar(size, zoneId);
+        cache = new ScheduleCache(calendar, STARTS);
+    }
+
+    // one of a handful of starts, a day apart
+    private LocalDateTime nextStart() {
+        next = (next + 1) % STARTS;
+        return CalendarGenerator.SCHEDULE_START.plusDays(next);
+    }
+
+    @Benchmark
+    public Schedule uncached() {
+        return calendar.createSchedule(nextStart(), zoneId);
+    }
+
+    @Benchmark
+    public Schedule cached() {
+        return cache.createSchedule(nextStart(), zoneId);
+    }
+}
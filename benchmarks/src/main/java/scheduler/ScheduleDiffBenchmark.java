@@ -0,0 +1,49 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// What is sent to a client after one late event is added to a scheduled calendar: the change set, against
+// the whole schedule's text
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ScheduleDiffBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private Schedule before;
+    private Schedule after;
+
+    @Setup(Level.Trial)
+    public void createSchedules() {
+        SchedulerCalendar calendar = CalendarGenerator.calendar(size, zoneId);
+        before = calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+        Event last = before.getEvents().last();
+        calendar.addEvent(Event.of(last.getStartTime().minusHours(1), Duration.ofMinutes(15), "late addition"));
+        after = calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    public ScheduleDiff diff() {
+        return before.diff(after);
+    }
+
+    @Benchmark
+    public String diffText() {
+        return before.diff(after).toString();
+    }
+
+    @Benchmark
+    public String scheduleText() {
+        return after.toString();
+    }
+}
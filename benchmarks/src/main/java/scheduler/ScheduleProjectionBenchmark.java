@@ -0,0 +1,71 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// One schedule shown in six viewer zones: scheduling it once and projecting it into each, against scheduling
+// it again in each zone. Each operation covers all six.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ScheduleProjectionBenchmark {
+
+    private static final ZoneId[] VIEWERS = {
+            ZoneId.of("Europe/London"), ZoneId.of("America/New_York"), ZoneId.of("America/Los_Angeles"),
+            ZoneId.of("Asia/Kolkata"), ZoneId.of("Asia/Tokyo"), ZoneId.of("Australia/Sydney")};
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private SchedulerCalendar calendar;
+    private Schedule projected;
+    private Schedule[] inEachZone;
+
+    @Setup(Level.Trial)
+    public void createCalendar() {
+        calendar = CalendarGenerator.calendar(size, zoneId);
+        projected = calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+        inEachZone = new Schedule[VIEWERS.length];
+        for (int i = 0; i < VIEWERS.length; i++) {
+            inEachZone[i] = calendar.createSchedule(CalendarGenerator.SCHEDULE_START, VIEWERS[i]);
+        }
+    }
+
+    // projections are kept by the schedule they are made from, so a new one is made every time
+    @Benchmark
+    public void scheduleOnceAndProject(Blackhole bh) {
+        Schedule schedule = calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+        for (ZoneId viewer : VIEWERS) {
+            bh.consume(schedule.inZone(viewer));
+        }
+    }
+
+    @Benchmark
+    public void scheduleInEachZone(Blackhole bh) {
+        for (ZoneId viewer : VIEWERS) {
+            bh.consume(calendar.createSchedule(CalendarGenerator.SCHEDULE_START, viewer));
+        }
+    }
+
+    // rendering the kept projections, against rendering schedules made in each zone
+    @Benchmark
+    public void renderProjections(Blackhole bh) {
+        for (ZoneId viewer : VIEWERS) {
+            bh.consume(projected.inZone(viewer).toString());
+        }
+    }
+
+    @Benchmark
+    public void renderSchedulesInEachZone(Blackhole bh) {
+        for (Schedule s : inEachZone) {
+            bh.consume(s.toString());
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class SchedulerCalendarBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;
+
+    @Param({"UTC", "Europe/London", "America/New_York", "Australia/Sydney"})
+    String zone;
+
+    private ZoneId zoneId;
+    private List<Event> events;
+    private SchedulerCalendar calendar;
+
+    // scheduling leaves the calendar untouched, so one calendar serves the whole trial
+    @Setup(Level.Trial)
+    public void createCalendar() {
+        zoneId = ZoneId.of(zone);
+        events = CalendarGenerator.events(size, zoneId);
+        calendar = CalendarGenerator.calendar(size, events);
+    }
+
+    // a calendar that has already been scheduled once, and an event late in its horizon to add to it
+    @State(Scope.Thread)
+    public static class RescheduledCalendar {
+        SchedulerCalendar calendar;
+        Event lateEvent;
+
+        @Setup(Level.Invocation)
+        public void createCalendar(SchedulerCalendarBenchmark benchmark) {
+            calendar = CalendarGenerator.calendar(benchmark.size, benchmark.events);
+            calendar.reschedule(CalendarGenerator.SCHEDULE_START, benchmark.zoneId);
+            Event last = benchmark.events.get(benchmark.events.size() - 1);
+            lateEvent = Event.of(last.getStartTime().minusHours(1), Duration.ofMinutes(15), "late addition");
+        }
+    }
+
+    @Benchmark
+    public Schedule createSchedule() {
+        return calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    public Schedule createTimelineSchedule() {
+        return calendar.createTimelineSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    public Schedule rescheduleAfterAddingEvent(RescheduledCalendar rescheduled) {
+        rescheduled.calendar.addEvent(rescheduled.lateEvent);
+        return rescheduled.calendar.reschedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    public NavigableSet<WorkPeriod> overwritePeriodsWithEvents() {
+        return calendar.overwritePeriodsWithEvents(zoneId);
+    }
+}
@@ -0,0 +1,55 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+// What recording SchedulerMetrics costs each kernel and the rendering, against the same work with it off.
+// No JFR recording is running, so with metrics off the monitors do nothing.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class SchedulerMetricsBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int size;
+
+    @Param({"false", "true"})
+    boolean metrics;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private SchedulerCalendar calendar;
+    private Schedule schedule;
+
+    @Setup(Level.Trial)
+    public void createCalendar() {
+        SchedulerMetrics.setEnabled(metrics);
+        calendar = CalendarGenerator.calendar(size, zoneId);
+        schedule = calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @TearDown(Level.Trial)
+    public void disableMetrics() {
+        SchedulerMetrics.setEnabled(false);
+        SchedulerMetrics.reset();
+    }
+
+    @Benchmark
+    public Schedule createSchedule() {
+        return calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    public Schedule createTimelineSchedule() {
+        return calendar.createTimelineSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+
+    @Benchmark
+    public String scheduleToString() {
+        return schedule.toString();
+    }
+}
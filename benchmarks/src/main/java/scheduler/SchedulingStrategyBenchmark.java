@@ -0,0 +1,51 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The greedy and earliest-deadline-first strategies over the same calendar, whose tasks are given deadlines
+// spread over the horizon in no particular order, and every fifth an earliest start up to a week before it.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class SchedulingStrategyBenchmark {
+
+    @Param({"1000", "100000"})
+    int size;
+
+    @Param({"greedy", "edf"})
+    String strategy;
+
+    private final ZoneId zoneId = ZoneId.of("Europe/London");
+    private SchedulerCalendar calendar;
+
+    @Setup(Level.Trial)
+    public void createCalendar() {
+        calendar = new SchedulerCalendar()
+                .setSchedulingStrategy(strategy.equals("edf") ? SchedulingStrategy.earliestDeadlineFirst() : SchedulingStrategy.greedy());
+        calendar.addWorkPeriods(CalendarGenerator.workPeriods(size));
+        CalendarGenerator.events(size, zoneId).forEach(calendar::addEvent);
+        List<Task> tasks = CalendarGenerator.tasks(size);
+        int days = (size + 1) / 2;
+        for (int i = 0; i < tasks.size(); i++) {
+            LocalDate deadline = CalendarGenerator.START_DATE.plusDays(1 + (i * 7919L) % days);
+            Task t = tasks.get(i).withDeadline(deadline.atTime(17, 0));
+            if (i % 5 == 0) {
+                t = t.withEarliestStart(deadline.minusDays(i % 7).atStartOfDay());
+            }
+            calendar.addTask(t);
+        }
+    }
+
+    @Benchmark
+    public Schedule createSchedule() {
+        return calendar.createSchedule(CalendarGenerator.SCHEDULE_START, zoneId);
+    }
+}
@@ -0,0 +1,50 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+// One backlog shared by a team whose members work in four zones, each with a year of work periods and
+// meetings of their own
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class TeamSchedulerBenchmark {
+
+    private static final int PERIODS = 520;
+    private static final ZoneId[] ZONES = {ZoneId.of("Europe/London"), ZoneId.of("America/New_York"),
+            ZoneId.of("Asia/Kolkata"), ZoneId.of("Australia/Sydney")};
+
+    @Param({"20", "200"})
+    int members;
+
+    @Param({"1000", "5000"})
+    int tasks;
+
+    private TeamScheduler team;
+    private Instant start;
+
+    @Setup(Level.Trial)
+    public void createTeam() {
+        team = new TeamScheduler().addTasks(CalendarGenerator.tasks(tasks));
+        for (int i = 0; i < members; i++) {
+            ZoneId zone = ZONES[i % ZONES.length];
+            SchedulerCalendar calendar = new SchedulerCalendar();
+            calendar.addWorkPeriods(CalendarGenerator.workPeriods(PERIODS));
+            CalendarGenerator.events(PERIODS, zone).forEach(calendar::addEvent);
+            team.addMember("member " + i, calendar, zone);
+        }
+        start = ZonedDateTime.of(CalendarGenerator.SCHEDULE_START, ZONES[0]).toInstant();
+    }
+
+    @Benchmark
+    public TeamScheduler.Result schedule() {
+        return team.schedule(start);
+    }
+}
@@ -0,0 +1,73 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Working-day arithmetic of the kind SLA deadlines need, against a pattern with a year's public holidays:
+// the compiled WorkPattern, and the day-by-day stream it replaced as the baseline.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class WorkPatternBenchmark {
+
+    @Param({"5", "60"})
+    int offset;
+
+    private static final int QUERIES = 1024;
+
+    private WorkPattern pattern;
+    private List<LocalDate> holidays;
+    private LocalDate[] dates;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createPattern() {
+        holidays = new ArrayList<>();
+        for (int year = 2020; year <= 2030; year++) {
+            holidays.add(LocalDate.of(year, Month.JANUARY, 1));
+            holidays.add(LocalDate.of(year, Month.MAY, 1));
+            holidays.add(LocalDate.of(year, Month.DECEMBER, 25));
+            holidays.add(LocalDate.of(year, Month.DECEMBER, 26));
+        }
+        pattern = WorkPattern.standard().withDaysOff(holidays);
+        Random random = new Random(42);
+        dates = new LocalDate[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            dates[i] = LocalDate.of(2021, 1, 1).plusDays(random.nextInt(3650));
+        }
+    }
+
+    @Benchmark
+    public boolean isWorkingDay() {
+        return pattern.isWorkingDay(dates[next++ & (QUERIES - 1)]);
+    }
+
+    @Benchmark
+    public LocalDate plusWorkingDays() {
+        return pattern.plusWorkingDays(dates[next++ & (QUERIES - 1)], offset);
+    }
+
+    @Benchmark
+    public LocalDate streamPlusWorkingDays() {
+        return Stream.iterate(dates[next++ & (QUERIES - 1)], d -> d.plusDays(1))
+                .filter(d -> d.getDayOfWeek().getValue() < 6 && !holidays.contains(d))
+                .skip(offset)
+                .findFirst()
+                .get();
+    }
+
+    @Benchmark
+    public List<WorkPeriod> workPeriods() {
+        return pattern.workPeriods(dates[next++ & (QUERIES - 1)], offset);
+    }
+}
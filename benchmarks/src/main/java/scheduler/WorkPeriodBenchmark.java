@@ -0,0 +1,49 @@
+package scheduler;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class WorkPeriodBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;
+
+    @Param({"UTC", "Europe/London", "America/New_York", "Australia/Sydney"})
+    String zone;
+
+    private ZoneId zoneId;
+    private List<WorkPeriod> periods;
+    private Deque<TaskPart> taskParts;
+
+    @Setup(Level.Trial)
+    public void resolveZone() {
+        zoneId = ZoneId.of(zone);
+    }
+
+    // populating adds to the periods and drains the deque, so both are rebuilt for every invocation
+    @Setup(Level.Invocation)
+    public void createPeriodsAndTaskParts() {
+        periods = CalendarGenerator.workPeriods(size);
+        taskParts = CalendarGenerator.taskParts(CalendarGenerator.tasks(size));
+    }
+
+    // one operation populates every period of the calendar, as SchedulerCalendar.populatePeriods does
+    @Benchmark
+    public void populateTaskPartList(Blackhole bh) {
+        for (WorkPeriod p : periods) {
+            p.populateTaskPartList(taskParts, CalendarGenerator.SCHEDULE_START, zoneId);
+        }
+        bh.consume(taskParts.size());
+    }
+}
@@ -0,0 +1,145 @@
+package scheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+// Schedules many calendars in parallel, for example one per employee in a nightly run. Each job builds its
+// Schedule with SchedulerCalendar.createTimelineSchedule, which leaves the calendar untouched, so jobs share
+// nothing mutable. Results are handed back on the calling thread in completion order, with at most
+// maxInFlight jobs submitted and unconsumed at a time, so memory stays bounded however many jobs the
+// iterator supplies.
+public class BatchScheduler implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int maxInFlight;
+    private final boolean ownsExecutor;
+
+    // Runs on a fork-join pool of the given parallelism
+    public BatchScheduler(int parallelism) {
+        this(new ForkJoinPool(parallelism), parallelism * 4, true);
+    }
+
+    // Runs on the given executor, e.g. a virtual-thread-per-task executor on JDKs that have one; the
+    // executor is not shut down by close()
+    public BatchScheduler(ExecutorService executor, int maxInFlight) {
+        this(executor, maxInFlight, false);
+    }
+
+    private BatchScheduler(ExecutorService executor, int maxInFlight, boolean ownsExecutor) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    // Blocks until every job has been scheduled and its Result passed to onCompletion
+    public void scheduleAll(Iterator<Job> jobs, Consumer<Result> onCompletion) {
+        CompletionService<Result> completionService = new ExecutorCompletionService<>(executor);
+        int inFlight = 0;
+        while (jobs.hasNext() || inFlight > 0) {
+            if (jobs.hasNext() && inFlight < maxInFlight) {
+                Job job = jobs.next();
+                completionService.submit(job::run);
+                inFlight++;
+            } else {
+                onCompletion.accept(take(completionService));
+                inFlight--;
+            }
+        }
+    }
+
+    public void scheduleAll(Iterable<Job> jobs, Consumer<Result> onCompletion) {
+        scheduleAll(jobs.iterator(), onCompletion);
+    }
+
+    private static Result take(CompletionService<Result> completionService) {
+        try {
+            return completionService.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for schedules", e);
+        } catch (ExecutionException e) {
+            // Job.run reports failures in its Result, so only an Error can get here
+            throw new IllegalStateException("Scheduling job failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    public static class Job {
+
+        private final SchedulerCalendar calendar;
+        private final LocalDateTime scheduleStart;
+        private final ZoneId zoneId;
+
+        private Job(SchedulerCalendar calendar, LocalDateTime scheduleStart, ZoneId zoneId) {
+            this.calendar = calendar;
+            this.scheduleStart = scheduleStart;
+            this.zoneId = zoneId;
+        }
+
+        public static Job of(SchedulerCalendar calendar, LocalDateTime scheduleStart, ZoneId zoneId) {
+            return new Job(calendar, scheduleStart, zoneId);
+        }
+
+        public SchedulerCalendar getCalendar() {
+            return calendar;
+        }
+
+        public LocalDateTime getScheduleStart() {
+            return scheduleStart;
+        }
+
+        public ZoneId getZoneId() {
+            return zoneId;
+        }
+
+        private Result run() {
+            try {
+                return new Result(this, calendar.createTimelineSchedule(scheduleStart, zoneId), null);
+            } catch (RuntimeException e) {
+                return new Result(this, null, e);
+            }
+        }
+    }
+
+    // The Schedule for a Job, or the exception that prevented it
+    public static class Result {
+
+        private final Job job;
+        private final Schedule schedule;
+        private final RuntimeException failure;
+
+        private Result(Job job, Schedule schedule, RuntimeException failure) {
+            this.job = job;
+            this.schedule = schedule;
+            this.failure = failure;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public Schedule getSchedule() {
+            return schedule;
+        }
+
+        public RuntimeException getFailure() {
+            return failure;
+        }
+
+        public boolean isFailed() {
+            return failure != null;
+        }
+    }
+}
@@ -0,0 +1,600 @@
+package scheduler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reads work periods, events and tasks into a calendar from files of any size, one record a line, in CSV:
+//
+//   period,2021-01-04T09:00,2021-01-04T12:30
+//   event,2021-01-04T11:00,Europe/London,PT30M,design review
+//   task,PT2H30M,write report
+//
+// or in NDJSON, one flat object a line:
+//
+//   {"type":"period","start":"2021-01-04T09:00","end":"2021-01-04T12:30"}
+//   {"type":"event","start":"2021-01-04T11:00","zone":"Europe/London","duration":"PT30M","description":"design review"}
+//   {"type":"task","duration":"PT2H30M","description":"write report"}
+//
+// Times are ISO local date-times, to the minute, second or nanosecond; an event's is in its zone. Durations are
+// ISO durations in days, hours, minutes and seconds. A CSV description is the rest of the line, commas and all,
+// or a quoted field with "" for a quote; it may be left out. Blank lines, and in CSV lines starting with #, are
+// skipped.
+//
+// The file is read through a fixed buffer, which is also the longest line accepted, and each line is parsed
+// where it lies in the buffer; only descriptions and zone ids become Strings. Records are handed to the
+// calendar in batches, work periods and events through load(), tasks through addTasks(), so memory use does
+// not grow with the file, only the calendar does. A line that cannot be parsed stops the import with an
+// IllegalArgumentException giving its number; the batches before it stay loaded.
+public class CalendarImporter {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final byte[] PERIOD = bytes("period");
+    private static final byte[] EVENT = bytes("event");
+    private static final byte[] TASK = bytes("task");
+    private static final byte[] TYPE = bytes("type");
+    private static final byte[] START = bytes("start");
+    private static final byte[] END = bytes("end");
+    private static final byte[] ZONE = bytes("zone");
+    private static final byte[] DURATION = bytes("duration");
+    private static final byte[] DESCRIPTION = bytes("description");
+
+    private final SchedulerCalendar calendar;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private Consumer<LoadReport> reportListener = report -> { };
+
+    public CalendarImporter(SchedulerCalendar calendar) {
+        this.calendar = calendar;
+    }
+
+    // how many work periods and events, or tasks, are read before they are handed to the calendar
+    public CalendarImporter setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    // Is given the LoadReport of each batch of work periods and events, with what it turned away; the Summary
+    // only counts them
+    public CalendarImporter setReportListener(Consumer<LoadReport> reportListener) {
+        this.reportListener = reportListener;
+        return this;
+    }
+
+    public Summary importFile(Path file, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return importFrom(channel, format);
+        }
+    }
+
+    // Reads the channel to its end; it is not closed
+    public Summary importFrom(ReadableByteChannel channel, Format format) throws IOException {
+        Import in = new Import(format);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer wrapper = ByteBuffer.wrap(buffer);
+        int lineStart = 0;
+        int scanned = 0;        // no line ends before this
+        int filled = 0;
+        boolean atEnd = false;
+        while (true) {
+            for (int i = scanned; i < filled; i++) {
+                if (buffer[i] == '\n') {
+                    in.line(buffer, lineStart, i);
+                    lineStart = i + 1;
+                }
+            }
+            if (atEnd) {
+                if (lineStart < filled) {
+                    in.line(buffer, lineStart, filled);
+                }
+                break;
+            }
+            // the partial line moves to the front, to be read on with the next bytes
+            System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+            filled -= lineStart;
+            lineStart = 0;
+            scanned = filled;
+            if (filled == buffer.length) {
+                throw new IllegalArgumentException("Line " + (in.lines + 1) + ": longer than " + BUFFER_SIZE + " bytes");
+            }
+            wrapper.limit(buffer.length).position(filled);
+            int read = channel.read(wrapper);
+            if (read < 0) {
+                atEnd = true;
+            } else {
+                filled += read;
+            }
+        }
+        in.flushPeriodsAndEvents();
+        in.flushTasks();
+        return in.summary();
+    }
+
+    // The state of one import: what has been read but not yet handed over, and the counts so far
+    private class Import {
+
+        private final Format format;
+        private final List<WorkPeriod> periods = new ArrayList<>();
+        private final List<Event> events = new ArrayList<>();
+        private final List<Task> tasks = new ArrayList<>();
+        private final int[] fields = new int[12];      // NDJSON: start and end of each value, by key
+        private final boolean[] escaped = new boolean[6];
+        private long lines;
+        private long periodsAdded;
+        private long eventsAdded;
+        private long tasksAdded;
+        private long periodConflicts;
+        private long eventConflicts;
+        // the zone of the last event read, which is usually that of the next
+        private byte[] lastZoneId = new byte[0];
+        private ZoneId lastZone;
+
+        Import(Format format) {
+            this.format = format;
+        }
+
+        void line(byte[] b, int from, int to) {
+            lines++;
+            if (to > from && b[to - 1] == '\r') {
+                to--;
+            }
+            int start = skipSpaces(b, from, to);
+            if (start == to || format == Format.CSV && b[start] == '#') {
+                return;
+            }
+            try {
+                if (format == Format.CSV) {
+                    csv(b, start, to);
+                } else {
+                    json(b, start, to);
+                }
+            } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+                throw new IllegalArgumentException("Line " + lines + ": " + e.getMessage(), e);
+            }
+        }
+
+        private void csv(byte[] b, int from, int to) {
+            int comma = indexOf(b, ',', from, to);
+            if (comma == to) {
+                throw new IllegalArgumentException("Expected fields after " + text(b, from, to));
+            }
+            if (matches(b, from, comma, PERIOD)) {
+                int endComma = indexOf(b, ',', comma + 1, to);
+                if (endComma == to || indexOf(b, ',', endComma + 1, to) != to) {
+                    throw new IllegalArgumentException("Expected period,start,end");
+                }
+                addPeriod(dateTime(b, comma + 1, endComma), dateTime(b, endComma + 1, to));
+            } else if (matches(b, from, comma, EVENT)) {
+                int zoneComma = indexOf(b, ',', comma + 1, to);
+                int durationComma = indexOf(b, ',', zoneComma + 1, to);
+                if (zoneComma == to || durationComma == to) {
+                    throw new IllegalArgumentException("Expected event,start,zone,duration[,description]");
+                }
+                int durationEnd = indexOf(b, ',', durationComma + 1, to);
+                addEvent(dateTime(b, comma + 1, zoneComma), zone(b, zoneComma + 1, durationComma),
+                        duration(b, durationComma + 1, durationEnd), csvText(b, durationEnd + 1, to));
+            } else if (matches(b, from, comma, TASK)) {
+                int durationEnd = indexOf(b, ',', comma + 1, to);
+                addTask(duration(b, comma + 1, durationEnd), csvText(b, durationEnd + 1, to));
+            } else {
+                throw new IllegalArgumentException("Unknown record type: " + text(b, from, comma));
+            }
+        }
+
+        // Reads one flat object, noting where the value of each key it knows lies; others are skipped
+        private void json(byte[] b, int from, int to) {
+            Arrays.fill(fields, -1);
+            Arrays.fill(escaped, false);
+            int p = from;
+            if (b[p] != '{') {
+                throw new IllegalArgumentException("Expected an object");
+            }
+            p = skipSpaces(b, p + 1, to);
+            if (p < to && b[p] == '}') {
+                throw new IllegalArgumentException("Empty object");
+            }
+            while (true) {
+                int keyEnd = stringEnd(b, p, to);
+                int key = key(b, p + 1, keyEnd);
+                p = skipSpaces(b, keyEnd + 1, to);
+                if (p == to || b[p] != ':') {
+                    throw new IllegalArgumentException("Expected : after a key");
+                }
+                p = skipSpaces(b, p + 1, to);
+                int valueEnd;
+                if (p < to && b[p] == '"') {
+                    valueEnd = stringEnd(b, p, to);
+                    if (key >= 0) {
+                        fields[2 * key] = p + 1;
+                        fields[2 * key + 1] = valueEnd;
+                        escaped[key] = indexOf(b, '\\', p + 1, valueEnd) != valueEnd;
+                    }
+                    valueEnd++;
+                } else if (key < 0) {
+                    // a number, true, false or null
+                    valueEnd = p;
+                    while (valueEnd < to && b[valueEnd] != ',' && b[valueEnd] != '}' && b[valueEnd] != ' ') {
+                        valueEnd++;
+                    }
+                } else {
+                    throw new IllegalArgumentException("Expected a string for " + new String(KEYS[key], StandardCharsets.UTF_8));
+                }
+                p = skipSpaces(b, valueEnd, to);
+                if (p < to && b[p] == ',') {
+                    p = skipSpaces(b, p + 1, to);
+                } else if (p < to && b[p] == '}' && skipSpaces(b, p + 1, to) == to) {
+                    break;
+                } else {
+                    throw new IllegalArgumentException("Expected , or } to end the line");
+                }
+            }
+            int typeFrom = field(0);
+            int typeTo = fields[1];
+            if (matches(b, typeFrom, typeTo, PERIOD)) {
+                addPeriod(dateTime(b, field(1), fields[3]), dateTime(b, field(2), fields[5]));
+            } else if (matches(b, typeFrom, typeTo, EVENT)) {
+                addEvent(dateTime(b, field(1), fields[3]), zone(b, field(3), fields[7]),
+                        duration(b, field(4), fields[9]), description(b));
+            } else if (matches(b, typeFrom, typeTo, TASK)) {
+                addTask(duration(b, field(4), fields[9]), description(b));
+            } else {
+                throw new IllegalArgumentException("Unknown record type: " + text(b, typeFrom, typeTo));
+            }
+        }
+
+        // where the value of a key starts, which must be there and need no unescaping
+        private int field(int key) {
+            if (fields[2 * key] < 0) {
+                throw new IllegalArgumentException("No " + new String(KEYS[key], StandardCharsets.UTF_8));
+            }
+            if (escaped[key]) {
+                throw new IllegalArgumentException("Unexpected escape in " + new String(KEYS[key], StandardCharsets.UTF_8));
+            }
+            return fields[2 * key];
+        }
+
+        private String description(byte[] b) {
+            int from = fields[10];
+            if (from < 0) {
+                return "";
+            }
+            return escaped[5] ? unescape(b, from, fields[11]) : text(b, from, fields[11]);
+        }
+
+        private void addPeriod(LocalDateTime start, LocalDateTime end) {
+            periods.add(WorkPeriod.of(start, end));
+            if (periods.size() + events.size() >= batchSize) {
+                flushPeriodsAndEvents();
+            }
+        }
+
+        private void addEvent(LocalDateTime start, ZoneId zone, Duration duration, String description) {
+            events.add(Event.of(ZonedDateTime.of(start, zone), duration, description));
+            if (periods.size() + events.size() >= batchSize) {
+                flushPeriodsAndEvents();
+            }
+        }
+
+        private void addTask(Duration duration, String description) {
+            tasks.add(new Task(duration, description));
+            if (tasks.size() >= batchSize) {
+                flushTasks();
+            }
+        }
+
+        void flushPeriodsAndEvents() {
+            if (periods.isEmpty() && events.isEmpty()) {
+                return;
+            }
+            LoadReport report = calendar.load(periods, events);
+            periodsAdded += report.getPeriodsAdded();
+            eventsAdded += report.getEventsAdded();
+            periodConflicts += report.getPeriodConflicts().size();
+            eventConflicts += report.getEventConflicts().size();
+            reportListener.accept(report);
+            periods.clear();
+            events.clear();
+        }
+
+        void flushTasks() {
+            calendar.addTasks(tasks);
+            tasksAdded += tasks.size();
+            tasks.clear();
+        }
+
+        private ZoneId zone(byte[] b, int from, int to) {
+            if (!matches(b, from, to, lastZoneId)) {
+                lastZone = ZoneId.of(text(b, from, to));
+                lastZoneId = Arrays.copyOfRange(b, from, to);
+            }
+            return lastZone;
+        }
+
+        Summary summary() {
+            return new Summary(lines, periodsAdded, eventsAdded, tasksAdded, periodConflicts, eventConflicts);
+        }
+    }
+
+    // in the order of the NDJSON fields array
+    private static final byte[][] KEYS = {TYPE, START, END, ZONE, DURATION, DESCRIPTION};
+
+    private static int key(byte[] b, int from, int to) {
+        for (int k = 0; k < KEYS.length; k++) {
+            if (matches(b, from, to, KEYS[k])) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    // the index of the quote that closes the string opening at from
+    private static int stringEnd(byte[] b, int from, int to) {
+        if (from >= to || b[from] != '"') {
+            throw new IllegalArgumentException("Expected a string");
+        }
+        for (int i = from + 1; i < to; i++) {
+            if (b[i] == '\\') {
+                i++;
+            } else if (b[i] == '"') {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    private static String unescape(byte[] b, int from, int to) {
+        String raw = text(b, from, to);
+        StringBuilder sb = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (++i == raw.length()) {
+                throw new IllegalArgumentException("Unterminated escape");
+            }
+            char e = raw.charAt(i);
+            switch (e) {
+                case '"': case '\\': case '/': sb.append(e); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (i + 4 >= raw.length()) {
+                        throw new IllegalArgumentException("Short \\u escape");
+                    }
+                    sb.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+                    i += 4;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown escape \\" + e);
+            }
+        }
+        return sb.toString();
+    }
+
+    // the rest of a CSV line, unquoted if it is quoted
+    private static String csvText(byte[] b, int from, int to) {
+        if (from >= to) {
+            return "";
+        }
+        if (b[from] != '"') {
+            return text(b, from, to);
+        }
+        if (to - from < 2 || b[to - 1] != '"') {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        String inner = text(b, from + 1, to - 1);
+        return inner.indexOf('"') < 0 ? inner : inner.replace("\"\"", "\"");
+    }
+
+    // An ISO local date-time, uuuu-MM-ddTHH:mm[:ss[.n]]
+    static LocalDateTime dateTime(byte[] b, int from, int to) {
+        if (to - from < 16 || b[from + 4] != '-' || b[from + 7] != '-' || b[from + 10] != 'T' || b[from + 13] != ':') {
+            throw new IllegalArgumentException("Not a date-time: " + text(b, from, to));
+        }
+        int second = 0;
+        int nano = 0;
+        int p = from + 16;
+        if (p < to) {
+            if (b[p] != ':' || to - p < 3) {
+                throw new IllegalArgumentException("Not a date-time: " + text(b, from, to));
+            }
+            second = digits(b, p + 1, 2);
+            p += 3;
+            if (p < to) {
+                if (b[p] != '.' || to - p < 2 || to - p > 10) {
+                    throw new IllegalArgumentException("Not a date-time: " + text(b, from, to));
+                }
+                int count = to - p - 1;
+                nano = digits(b, p + 1, count);
+                for (int i = count; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+        return LocalDateTime.of(digits(b, from, 4), digits(b, from + 5, 2), digits(b, from + 8, 2),
+                digits(b, from + 11, 2), digits(b, from + 14, 2), second, nano);
+    }
+
+    // An ISO duration, PnDTnHnMn.nS, any of the parts left out
+    static Duration duration(byte[] b, int from, int to) {
+        if (from >= to || b[from] != 'P') {
+            throw new IllegalArgumentException("Not a duration: " + text(b, from, to));
+        }
+        long seconds = 0;
+        int nanos = 0;
+        boolean time = false;
+        boolean empty = true;
+        int p = from + 1;
+        while (p < to) {
+            if (b[p] == 'T' && !time) {
+                time = true;
+                empty = true;
+                p++;
+                continue;
+            }
+            int numberStart = p;
+            long n = 0;
+            while (p < to && b[p] >= '0' && b[p] <= '9') {
+                n = Math.addExact(Math.multiplyExact(n, 10), b[p++] - '0');
+            }
+            int fraction = 0;
+            boolean fractional = p < to && b[p] == '.';
+            if (fractional) {
+                int fractionStart = ++p;
+                while (p < to && b[p] >= '0' && b[p] <= '9' && p - fractionStart < 9) {
+                    fraction = 10 * fraction + b[p++] - '0';
+                }
+                for (int i = p - fractionStart; i < 9; i++) {
+                    fraction *= 10;
+                }
+            }
+            if (p == numberStart || p == to) {
+                throw new IllegalArgumentException("Not a duration: " + text(b, from, to));
+            }
+            byte unit = b[p++];
+            if (fractional && unit != 'S') {
+                throw new IllegalArgumentException("Not a duration: " + text(b, from, to));
+            }
+            if (!time && unit == 'D') {
+                seconds = Math.addExact(seconds, Math.multiplyExact(n, 86_400));
+            } else if (time && unit == 'H') {
+                seconds = Math.addExact(seconds, Math.multiplyExact(n, 3_600));
+            } else if (time && unit == 'M') {
+                seconds = Math.addExact(seconds, Math.multiplyExact(n, 60));
+            } else if (time && unit == 'S') {
+                seconds = Math.addExact(seconds, n);
+                nanos = fraction;
+            } else {
+                throw new IllegalArgumentException("Not a duration: " + text(b, from, to));
+            }
+            empty = false;
+        }
+        if (empty) {
+            throw new IllegalArgumentException("Not a duration: " + text(b, from, to));
+        }
+        return Duration.ofSeconds(seconds, nanos);
+    }
+
+    private static int digits(byte[] b, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) {
+                throw new IllegalArgumentException("Expected a digit: " + (char) b[i]);
+            }
+            value = 10 * value + d;
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] b, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (b[i] == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int skipSpaces(byte[] b, int from, int to) {
+        while (from < to && (b[from] == ' ' || b[from] == '\t')) {
+            from++;
+        }
+        return from;
+    }
+
+    private static boolean matches(byte[] b, int from, int to, byte[] expected) {
+        return Arrays.equals(b, from, to, expected, 0, expected.length);
+    }
+
+    private static String text(byte[] b, int from, int to) {
+        return new String(b, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // What an import read and added; the work periods and events it turned away are only counted here, and
+    // given in full to the report listener
+    public static final class Summary {
+
+        private final long lines;
+        private final long periodsAdded;
+        private final long eventsAdded;
+        private final long tasksAdded;
+        private final long periodConflicts;
+        private final long eventConflicts;
+
+        Summary(long lines, long periodsAdded, long eventsAdded, long tasksAdded, long periodConflicts, long eventConflicts) {
+            this.lines = lines;
+            this.periodsAdded = periodsAdded;
+            this.eventsAdded = eventsAdded;
+            this.tasksAdded = tasksAdded;
+            this.periodConflicts = periodConflicts;
+            this.eventConflicts = eventConflicts;
+        }
+
+        // every line, blank lines and comments too
+        public long getLines() {
+            return lines;
+        }
+
+        public long getPeriodsAdded() {
+            return periodsAdded;
+        }
+
+        public long getEventsAdded() {
+            return eventsAdded;
+        }
+
+        public long getTasksAdded() {
+            return tasksAdded;
+        }
+
+        public long getPeriodConflicts() {
+            return periodConflicts;
+        }
+
+        public long getEventConflicts() {
+            return eventConflicts;
+        }
+
+        // true if every work period and event read was added
+        public boolean isClean() {
+            return periodConflicts == 0 && eventConflicts == 0;
+        }
+
+        @Override
+        public String toString() {
+            return "CalendarImporter.Summary{lines=" + lines + ", periodsAdded=" + periodsAdded + ", eventsAdded=" + eventsAdded
+                    + ", tasksAdded=" + tasksAdded + ", periodConflicts=" + periodConflicts + ", eventConflicts=" + eventConflicts + '}';
+        }
+    }
+}
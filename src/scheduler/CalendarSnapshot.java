@@ -0,0 +1,407 @@
+package scheduler;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.*;
+import java.util.*;
+
+// A calendar, and optionally a Schedule made from it, saved to a file in a compact binary form. The file
+// is memory-mapped when opened, and objects are only created as they are asked for: getWorkPeriod(i) and
+// the like read a single fixed-width record, and getCalendar() builds the whole calendar in linear time,
+// without the overlap checks of adding periods one by one.
+//
+// Layout, all big-endian:
+//   header    magic "SCAL", version, then the number of strings, work periods, events and tasks, and
+//             whether a schedule follows (ints)
+//   strings   an offset for each string and one for the end (ints), then the UTF-8 bytes of them all
+//   periods   start second, start nano, end second, end nano (local epoch seconds)        24 bytes each
+//   events    start second, start nano, end second, end nano (epoch seconds), start zone,
+//             end zone and description (string indexes)                                  36 bytes each
+//   tasks     duration seconds, duration nano, description (string index), earliest start and
+//             deadline as local seconds and nanos (a nano of -1 if not set), and minimum part
+//             seconds and nano                                                           52 bytes each
+//   schedule  zone (string index), success, and the number of periods, runs and parts (ints), the
+//             schedule start as a local second and nano (a nano of -1 if not known), and the number of
+//             infeasible tasks (int), then
+//             periods    as above, and the index of their first part                     28 bytes each
+//             runs       task index and part count: one for each task in each run          8 bytes each
+//             parts      run index, sequence number, duration seconds, duration nano      20 bytes each
+//             infeasible task index, reason, scheduled seconds and nano                   20 bytes each
+//
+// Calendars that generate their work periods cannot be saved, and any task parts already in the calendar's
+// own work periods are not. Nor is the calendar's scheduling strategy: getCalendar() schedules greedily.
+public class CalendarSnapshot {
+
+    private static final int MAGIC = 0x5343414C;   // "SCAL"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 7 * Integer.BYTES;
+    private static final int PERIOD_BYTES = 24;
+    private static final int EVENT_BYTES = 36;
+    private static final int TASK_BYTES = 52;
+    private static final int SCHEDULE_HEADER_BYTES = 6 * Integer.BYTES + 12;
+    private static final int SCHEDULED_PERIOD_BYTES = 28;
+    private static final int RUN_BYTES = 8;
+    private static final int PART_BYTES = 20;
+    private static final int INFEASIBLE_BYTES = 20;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int workPeriodCount;
+    private final int eventCount;
+    private final int taskCount;
+    private final boolean hasSchedule;
+
+    // where each section starts
+    private final int stringOffsets;
+    private final int stringBytes;
+    private final int periods;
+    private final int events;
+    private final int tasks;
+    private final int schedule;
+
+    // created on demand, so that they are shared by everything read from this snapshot
+    private String[] strings;
+    private Task[] taskObjects;
+    private SchedulerCalendar calendar;
+
+    private CalendarSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a calendar snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported calendar snapshot version: " + version);
+        }
+        stringCount = buffer.getInt(8);
+        workPeriodCount = buffer.getInt(12);
+        eventCount = buffer.getInt(16);
+        taskCount = buffer.getInt(20);
+        hasSchedule = buffer.getInt(24) != 0;
+
+        stringOffsets = HEADER_BYTES;
+        stringBytes = stringOffsets + (stringCount + 1) * Integer.BYTES;
+        periods = stringBytes + buffer.getInt(stringOffsets + stringCount * Integer.BYTES);
+        events = periods + workPeriodCount * PERIOD_BYTES;
+        tasks = events + eventCount * EVENT_BYTES;
+        schedule = tasks + taskCount * TASK_BYTES;
+        if (schedule + (hasSchedule ? SCHEDULE_HEADER_BYTES : 0) > buffer.capacity()) {
+            throw new IOException("Truncated calendar snapshot");
+        }
+    }
+
+    // Maps the file; it is not read until something is asked for
+    public static CalendarSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Calendar snapshot too large to map: " + file);
+            }
+            return new CalendarSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public static void write(Path file, SchedulerCalendar calendar) throws IOException {
+        write(file, calendar, null);
+    }
+
+    // The schedule, if given, must have been made from this calendar
+    public static void write(Path file, SchedulerCalendar calendar, Schedule schedule) throws IOException {
+        if (calendar.hasWorkPeriodGenerator()) {
+            throw new IllegalArgumentException("Calendar generates its work periods and cannot be saved");
+        }
+        if (!calendar.getRecurringEvents().isEmpty()) {
+            throw new IllegalArgumentException("Calendar has recurring events and cannot be saved");
+        }
+        Map<String, Integer> stringIndexes = new LinkedHashMap<>();
+        List<Task> taskList = calendar.getTasks();
+        Map<Task, Integer> taskIndexes = new IdentityHashMap<>();
+        for (int i = 0; i < taskList.size(); i++) {
+            taskIndexes.putIfAbsent(taskList.get(i), i);
+            stringIndex(stringIndexes, taskList.get(i).getDescription());
+        }
+        for (Event e : calendar.getEvents()) {
+            stringIndex(stringIndexes, e.getStartTime().getZone().getId());
+            stringIndex(stringIndexes, e.getEndTime().getZone().getId());
+            stringIndex(stringIndexes, e.getDescription());
+        }
+        Map<ScheduledTask, Integer> runIndexes = new LinkedHashMap<>();     // written in index order
+        if (schedule != null) {
+            stringIndex(stringIndexes, schedule.getZoneId().getId());
+            for (WorkPeriod p : schedule.getScheduledPeriods()) {
+                for (TaskPart tp : p.getTaskParts()) {
+                    if (!taskIndexes.containsKey(tp.getOwner())) {
+                        throw new IllegalArgumentException("Schedule was not made from this calendar: " + tp);
+                    }
+                    runIndexes.putIfAbsent(tp.getScheduledTask(), runIndexes.size());
+                }
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(stringIndexes.size());
+            out.writeInt(calendar.getWorkPeriods().size());
+            out.writeInt(calendar.getEvents().size());
+            out.writeInt(taskList.size());
+            out.writeInt(schedule != null ? 1 : 0);
+
+            List<byte[]> encoded = new ArrayList<>(stringIndexes.size());
+            int offset = 0;
+            for (String s : stringIndexes.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                out.writeInt(offset);
+                offset += bytes.length;
+            }
+            out.writeInt(offset);
+            for (byte[] bytes : encoded) {
+                out.write(bytes);
+            }
+
+            for (WorkPeriod p : calendar.getWorkPeriods()) {
+                writePeriod(out, p);
+            }
+            for (Event e : calendar.getEvents()) {
+                writeInstant(out, e.getStartTime().toInstant());
+                writeInstant(out, e.getEndTime().toInstant());
+                out.writeInt(stringIndexes.get(e.getStartTime().getZone().getId()));
+                out.writeInt(stringIndexes.get(e.getEndTime().getZone().getId()));
+                out.writeInt(stringIndexes.get(e.getDescription()));
+            }
+            for (Task t : taskList) {
+                writeDuration(out, t.getDuration());
+                out.writeInt(stringIndexes.get(t.getDescription()));
+                writeLocalOrNull(out, t.getEarliestStart());
+                writeLocalOrNull(out, t.getDeadline());
+                writeDuration(out, t.getMinimumPart());
+            }
+            if (schedule != null) {
+                writeSchedule(out, schedule, stringIndexes, taskIndexes, runIndexes);
+            }
+        }
+    }
+
+    private static void writeSchedule(DataOutputStream out, Schedule schedule, Map<String, Integer> stringIndexes,
+                                      Map<Task, Integer> taskIndexes, Map<ScheduledTask, Integer> runIndexes)
+            throws IOException {
+        List<WorkPeriod> scheduledPeriods = schedule.getScheduledPeriods();
+        int partCount = 0;
+        for (WorkPeriod p : scheduledPeriods) {
+            partCount += p.getTaskParts().size();
+        }
+
+        out.writeInt(stringIndexes.get(schedule.getZoneId().getId()));
+        out.writeInt(schedule.isSuccessful() ? 1 : 0);
+        out.writeInt(scheduledPeriods.size());
+        out.writeInt(runIndexes.size());
+        out.writeInt(partCount);
+        writeLocalOrNull(out, schedule.getScheduleStart());
+        out.writeInt(schedule.getInfeasibleTasks().size());
+        int firstPart = 0;
+        for (WorkPeriod p : scheduledPeriods) {
+            writePeriod(out, p);
+            out.writeInt(firstPart);
+            firstPart += p.getTaskParts().size();
+        }
+        for (ScheduledTask run : runIndexes.keySet()) {
+            out.writeInt(taskIndexes.get(run.getTask()));
+            out.writeInt(run.getPartCount());
+        }
+        for (WorkPeriod p : scheduledPeriods) {
+            for (TaskPart tp : p.getTaskParts()) {
+                out.writeInt(runIndexes.get(tp.getScheduledTask()));
+                out.writeInt(tp.getPartSequenceNumber());
+                writeDuration(out, tp.getDuration());
+            }
+        }
+        for (InfeasibleTask t : schedule.getInfeasibleTasks()) {
+            out.writeInt(taskIndexes.get(t.getTask()));
+            out.writeInt(t.getReason().ordinal());
+            writeDuration(out, t.getScheduled());
+        }
+    }
+
+    private static void stringIndex(Map<String, Integer> stringIndexes, String s) {
+        stringIndexes.putIfAbsent(s, stringIndexes.size());
+    }
+
+    private static void writePeriod(DataOutputStream out, WorkPeriod p) throws IOException {
+        writeLocal(out, p.getStartTime());
+        writeLocal(out, p.getEndTime());
+    }
+
+    private static void writeLocal(DataOutputStream out, LocalDateTime ldt) throws IOException {
+        out.writeLong(ldt.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(ldt.getNano());
+    }
+
+    // a nano of -1 for null
+    private static void writeLocalOrNull(DataOutputStream out, LocalDateTime ldt) throws IOException {
+        if (ldt != null) {
+            writeLocal(out, ldt);
+        } else {
+            out.writeLong(0);
+            out.writeInt(-1);
+        }
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static void writeDuration(DataOutputStream out, Duration d) throws IOException {
+        out.writeLong(d.getSeconds());
+        out.writeInt(d.getNano());
+    }
+
+    public int getWorkPeriodCount() {
+        return workPeriodCount;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public int getTaskCount() {
+        return taskCount;
+    }
+
+    public boolean hasSchedule() {
+        return hasSchedule;
+    }
+
+    // The work periods and events are in calendar order
+    public WorkPeriod getWorkPeriod(int i) {
+        Objects.checkIndex(i, workPeriodCount);
+        return readPeriod(periods + i * PERIOD_BYTES);
+    }
+
+    public Event getEvent(int i) {
+        Objects.checkIndex(i, eventCount);
+        int at = events + i * EVENT_BYTES;
+        ZonedDateTime start = readInstant(at).atZone(ZoneId.of(getString(buffer.getInt(at + 24))));
+        ZonedDateTime end = readInstant(at + 12).atZone(ZoneId.of(getString(buffer.getInt(at + 28))));
+        return Event.of(start, end, getString(buffer.getInt(at + 32)));
+    }
+
+    public synchronized Task getTask(int i) {
+        Objects.checkIndex(i, taskCount);
+        if (taskObjects == null) {
+            taskObjects = new Task[taskCount];
+        }
+        if (taskObjects[i] == null) {
+            int at = tasks + i * TASK_BYTES;
+            taskObjects[i] = new Task(readDuration(at), getString(buffer.getInt(at + 12)))
+                    .withEarliestStart(readLocalOrNull(at + 16)).withDeadline(readLocalOrNull(at + 28))
+                    .withMinimumPart(readDuration(at + 40));
+        }
+        return taskObjects[i];
+    }
+
+    // The saved calendar, built on the first call
+    public synchronized SchedulerCalendar getCalendar() {
+        if (calendar == null) {
+            List<WorkPeriod> periodList = new ArrayList<>(workPeriodCount);
+            for (int i = 0; i < workPeriodCount; i++) {
+                periodList.add(getWorkPeriod(i));
+            }
+            List<Event> eventList = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                eventList.add(getEvent(i));
+            }
+            List<Task> taskList = new ArrayList<>(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                taskList.add(getTask(i));
+            }
+            calendar = SchedulerCalendar.ofSorted(periodList, eventList, taskList);
+        }
+        return calendar;
+    }
+
+    // The saved schedule, with the tasks of getCalendar() and a copy of its events as they are now, which later
+    // changes to that calendar do not show; a new Schedule on every call
+    public Schedule getSchedule() {
+        if (!hasSchedule) {
+            throw new IllegalStateException("Snapshot has no schedule");
+        }
+        SchedulerCalendar calendar = getCalendar();
+        ZoneId zoneId = ZoneId.of(getString(buffer.getInt(schedule)));
+        boolean success = buffer.getInt(schedule + 4) != 0;
+        int periodCount = buffer.getInt(schedule + 8);
+        int runCount = buffer.getInt(schedule + 12);
+        int partCount = buffer.getInt(schedule + 16);
+        LocalDateTime scheduleStart = readLocalOrNull(schedule + 20);
+        int infeasibleCount = buffer.getInt(schedule + 32);
+        int scheduledPeriods = schedule + SCHEDULE_HEADER_BYTES;
+        int runs = scheduledPeriods + periodCount * SCHEDULED_PERIOD_BYTES;
+        int parts = runs + runCount * RUN_BYTES;
+        int infeasible = parts + partCount * PART_BYTES;
+
+        ScheduledTask[] runObjects = new ScheduledTask[runCount];
+        for (int i = 0; i < runCount; i++) {
+            int at = runs + i * RUN_BYTES;
+            runObjects[i] = new ScheduledTask(getTask(buffer.getInt(at)), buffer.getInt(at + 4));
+        }
+        List<WorkPeriod> periodList = new ArrayList<>(periodCount);
+        for (int i = 0; i < periodCount; i++) {
+            int at = scheduledPeriods + i * SCHEDULED_PERIOD_BYTES;
+            int firstPart = buffer.getInt(at + 24);
+            int endPart = i + 1 < periodCount ? buffer.getInt(at + SCHEDULED_PERIOD_BYTES + 24) : partCount;
+            List<TaskPart> taskParts = new ArrayList<>(endPart - firstPart);
+            for (int part = firstPart; part < endPart; part++) {
+                int partAt = parts + part * PART_BYTES;
+                taskParts.add(new TaskPart(runObjects[buffer.getInt(partAt)], readDuration(partAt + 8), buffer.getInt(partAt + 4)));
+            }
+            periodList.add(WorkPeriod.of(readLocal(at), readLocal(at + 12), taskParts));
+        }
+        List<InfeasibleTask> infeasibleTasks = new ArrayList<>(infeasibleCount);
+        for (int i = 0; i < infeasibleCount; i++) {
+            int at = infeasible + i * INFEASIBLE_BYTES;
+            infeasibleTasks.add(new InfeasibleTask(getTask(buffer.getInt(at)),
+                    InfeasibleTask.Reason.values()[buffer.getInt(at + 4)], readDuration(at + 8)));
+        }
+        return new Schedule(zoneId, scheduleStart, periodList, calendar.getEvents(), success, infeasibleTasks);
+    }
+
+    private synchronized String getString(int i) {
+        if (strings == null) {
+            strings = new String[stringCount];
+        }
+        if (strings[i] == null) {
+            int start = buffer.getInt(stringOffsets + i * Integer.BYTES);
+            int end = buffer.getInt(stringOffsets + (i + 1) * Integer.BYTES);
+            byte[] bytes = new byte[end - start];
+            buffer.get(stringBytes + start, bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return strings[i];
+    }
+
+    private WorkPeriod readPeriod(int at) {
+        return WorkPeriod.of(readLocal(at), readLocal(at + 12));
+    }
+
+    private LocalDateTime readLocal(int at) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(at), buffer.getInt(at + 8), ZoneOffset.UTC);
+    }
+
+    private LocalDateTime readLocalOrNull(int at) {
+        return buffer.getInt(at + 8) < 0 ? null : readLocal(at);
+    }
+
+    private Instant readInstant(int at) {
+        return Instant.ofEpochSecond(buffer.getLong(at), buffer.getInt(at + 8));
+    }
+
+    private Duration readDuration(int at) {
+        return Duration.ofSeconds(buffer.getLong(at), buffer.getInt(at + 8));
+    }
+}
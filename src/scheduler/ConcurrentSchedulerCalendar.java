@@ -0,0 +1,115 @@
+package scheduler;
+
+import java.time.*;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+// A calendar that any number of threads can schedule while others change it. The current state is an
+// immutable SchedulerCalendar snapshot: every change is made to a copy, which is then published in its
+// place, so schedules are created without locking from whichever snapshot was current when they started
+// and never see a change half made. Writers are serialized with each other only.
+//
+// Each change copies the calendar, so a stream of updates is best applied in batches through update().
+// Schedules are created by the columnar kernel, which leaves the snapshot's work periods untouched, so
+// readers of the same snapshot share nothing mutable.
+public class ConcurrentSchedulerCalendar {
+
+    private final Object writeLock = new Object();
+    private volatile SchedulerCalendar snapshot = new SchedulerCalendar();
+
+    // In a rolling window that is due to be compacted, the compacted calendar is published first, as its own
+    // snapshot; a snapshot is never compacted while others may be reading it.
+    public Schedule createSchedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        return current().timelineSchedule(scheduleStart, zoneId);
+    }
+
+    // the snapshot to schedule from, compacted first if that is due
+    SchedulerCalendar current() {
+        SchedulerCalendar current = snapshot;
+        if (current.isCompactionDue()) {
+            synchronized (writeLock) {
+                if (snapshot.isCompactionDue()) {
+                    update(SchedulerCalendar::compact);
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    public Schedule createSchedule(LocalDate scheduleDate, ZoneId zoneId) {
+        return createSchedule(scheduleDate.atStartOfDay(), zoneId);
+    }
+
+    // Applies all the changes to a copy of the current calendar and publishes it as one snapshot. If a
+    // change throws, none of them are published.
+    public ConcurrentSchedulerCalendar update(Consumer<SchedulerCalendar> changes) {
+        synchronized (writeLock) {
+            SchedulerCalendar next = new SchedulerCalendar(snapshot);
+            changes.accept(next);
+            snapshot = next;
+        }
+        return this;
+    }
+
+    public ConcurrentSchedulerCalendar setSchedulingStrategy(SchedulingStrategy strategy) {
+        return update(c -> c.setSchedulingStrategy(strategy));
+    }
+
+    public ConcurrentSchedulerCalendar setRollingWindow(Duration retention, Clock clock, BiConsumer<List<WorkPeriod>, List<Event>> archive) {
+        return update(c -> c.setRollingWindow(retention, clock, archive));
+    }
+
+    public ConcurrentSchedulerCalendar setRollingWindow(Duration retention, Clock clock) {
+        return update(c -> c.setRollingWindow(retention, clock));
+    }
+
+    public ConcurrentSchedulerCalendar compact() {
+        return update(SchedulerCalendar::compact);
+    }
+
+    public ConcurrentSchedulerCalendar addWorkPeriod(WorkPeriod p) {
+        return update(c -> c.addWorkPeriod(p));
+    }
+
+    public ConcurrentSchedulerCalendar addWorkPeriods(List<WorkPeriod> periods) {
+        return update(c -> c.addWorkPeriods(periods));
+    }
+
+    // loads everything as one snapshot
+    public LoadReport load(List<WorkPeriod> periods, List<Event> events) {
+        LoadReport[] report = new LoadReport[1];
+        update(c -> report[0] = c.load(periods, events));
+        return report[0];
+    }
+
+    public ConcurrentSchedulerCalendar addTask(String description, int hours, int minutes) {
+        return update(c -> c.addTask(description, hours, minutes));
+    }
+
+    public ConcurrentSchedulerCalendar addTask(Task task) {
+        return update(c -> c.addTask(task));
+    }
+
+    public ConcurrentSchedulerCalendar addTasks(List<Task> tasks) {
+        return update(c -> c.addTasks(tasks));
+    }
+
+    public ConcurrentSchedulerCalendar addEvent(Event e) {
+        return update(c -> c.addEvent(e));
+    }
+
+    public ConcurrentSchedulerCalendar addEvent(ZonedDateTime eventDateTime, Duration duration, String description) {
+        return update(c -> c.addEvent(eventDateTime, duration, description));
+    }
+
+    public ConcurrentSchedulerCalendar addRecurringEvent(RecurringEvent r) {
+        return update(c -> c.addRecurringEvent(r));
+    }
+
+    // the revision of the current snapshot, which increases with every change published
+    long getRevision() {
+        return snapshot.getRevision();
+    }
+}
@@ -0,0 +1,396 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+// One local day of a Schedule: the parts of its periods, task parts and events that fall on that date in
+// the schedule zone. Nothing is split or copied; each entry is the original object with the times it is
+// clipped to, which are exactly those splitting at midnight would give the pieces. Built by
+// Schedule.dayIterator and Schedule.columns.
+public final class DaySlice {
+
+    private final Columns columns;
+    private final LocalDate date;
+    private final long instantStart;    // epoch seconds of the midnights the day runs between
+    private final long instantEnd;
+    // indexes into the columns; the entries overlapping the date are among these
+    private final int periodFrom;
+    private final int periodTo;
+    private final int eventFrom;
+    private final int eventTo;
+
+    private DaySlice(Columns columns, LocalDate date, long instantStart, long instantEnd, int periodFrom, int periodTo, int eventFrom, int eventTo) {
+        this.columns = columns;
+        this.date = date;
+        this.instantStart = instantStart;
+        this.instantEnd = instantEnd;
+        this.periodFrom = periodFrom;
+        this.periodTo = periodTo;
+        this.eventFrom = eventFrom;
+        this.eventTo = eventTo;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    // The periods overlapping the date, in start order
+    public List<PeriodSlice> getPeriods() {
+        long dayStart = date.toEpochDay() * SECONDS_PER_DAY;
+        long dayEnd = dayStart + SECONDS_PER_DAY;
+        List<PeriodSlice> result = new ArrayList<>(periodTo - periodFrom);
+        for (int i = periodFrom; i < periodTo; i++) {
+            if (columns.periodEnds[i] > dayStart || columns.periodStarts[i] >= dayStart) {
+                WorkPeriod p = columns.periods[i];
+                LocalDateTime start = columns.periodStarts[i] >= dayStart ? p.getStartTime() : localDateTime(dayStart);
+                LocalDateTime end = columns.periodEnds[i] <= dayEnd ? p.getEndTime() : localDateTime(dayEnd);
+                result.add(new PeriodSlice(p, start, end, columns.scheduleStart));
+            }
+        }
+        return result;
+    }
+
+    // The events overlapping the date, in order of local start; events starting at the same local time
+    // stay in the schedule's order
+    public List<EventSlice> getEvents() {
+        long dayStart = instantStart;
+        long dayEnd = instantEnd;
+        List<EventSlice> result = new ArrayList<>(eventTo - eventFrom);
+        boolean sorted = true;
+        for (int i = eventFrom; i < eventTo; i++) {
+            if (columns.eventEnds[i] > dayStart || columns.eventStarts[i] >= dayStart) {
+                EventSlice slice = new EventSlice(columns.events[i], columns.zone, columns.offsets,
+                        columns.eventStarts[i] >= dayStart ? NOT_CLIPPED : dayStart,
+                        columns.eventEnds[i] <= dayEnd ? NOT_CLIPPED : dayEnd);
+                sorted &= result.isEmpty() || !result.get(result.size() - 1).getStart().isAfter(slice.getStart());
+                result.add(slice);
+            }
+        }
+        if (!sorted) {
+            // events are in instant order, which across a DST overlap is not local order; the sort is stable
+            result.sort(Comparator.comparing(EventSlice::getStart));
+        }
+        return result;
+    }
+
+    // Writes the day as Schedule.writeTo does, merging periods and events by local start; where a period and
+    // an event start at the same local time only the event is written. Periods are read straight from the
+    // columns rather than as slices. Returns how many of the entries start at a midnight they run over.
+    int appendTo(StringBuilder sb) {
+        List<EventSlice> events = getEvents();
+        long dayStart = date.toEpochDay() * SECONDS_PER_DAY;
+        long dayEnd = dayStart + SECONDS_PER_DAY;
+        int clipped = 0;
+        int p = nextPeriod(periodFrom, dayStart);
+        int e = 0;
+        while (p < periodTo || e < events.size()) {
+            LocalDateTime periodStart = p < periodTo ? periodStart(p, dayStart) : null;
+            LocalDateTime next = e == events.size() || (periodStart != null && periodStart.isBefore(events.get(e).getStart()))
+                    ? periodStart : events.get(e).getStart();
+            boolean eventsAtNext = e < events.size() && events.get(e).getStart().equals(next);
+            for (; periodStart != null && periodStart.equals(next); periodStart = p < periodTo ? periodStart(p, dayStart) : null) {
+                WorkPeriod period = columns.periods[p];
+                if (columns.periodStarts[p] < dayStart) clipped++;
+                if (!eventsAtNext) {
+                    LocalDateTime periodEnd = columns.periodEnds[p] <= dayEnd ? period.getEndTime() : localDateTime(dayEnd);
+                    if (period.getTaskParts().isEmpty() || (periodStart.equals(period.getStartTime()) && periodEnd.equals(period.getEndTime()))) {
+                        period.appendTo(sb, periodStart, periodEnd);
+                    } else {
+                        // only in a schedule seen from another zone: its parts are not split at midnight there
+                        new PeriodSlice(period, periodStart, periodEnd, columns.scheduleStart).appendTo(sb);
+                    }
+                }
+                p = nextPeriod(p + 1, dayStart);
+            }
+            for (; e < events.size() && events.get(e).getStart().equals(next); e++) {
+                if (events.get(e).clippedStart != NOT_CLIPPED) clipped++;
+                events.get(e).appendTo(sb);
+            }
+        }
+        return clipped;
+    }
+
+    private int nextPeriod(int from, long dayStart) {
+        while (from < periodTo && !(columns.periodEnds[from] > dayStart || columns.periodStarts[from] >= dayStart)) {
+            from++;
+        }
+        return from;
+    }
+
+    private LocalDateTime periodStart(int period, long dayStart) {
+        return columns.periodStarts[period] >= dayStart ? columns.periods[period].getStartTime() : localDateTime(dayStart);
+    }
+
+    // A period, or the part of it on the date
+    public static final class PeriodSlice {
+
+        private final WorkPeriod period;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final LocalDateTime scheduleStart;     // null if not known
+
+        private PeriodSlice(WorkPeriod period, LocalDateTime start, LocalDateTime end, LocalDateTime scheduleStart) {
+            this.period = period;
+            this.start = start;
+            this.end = end;
+            this.scheduleStart = scheduleStart;
+        }
+
+        public WorkPeriod getWorkPeriod() {
+            return period;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public boolean isWhole() {
+            return start.equals(period.getStartTime()) && end.equals(period.getEndTime());
+        }
+
+        // The task parts of the period that run during the slice, with the times they are clipped to. Parts
+        // run back to back from the start of the period, or from the schedule start if that is later.
+        public List<PartSlice> getTaskParts() {
+            List<TaskPart> parts = period.getTaskParts();
+            List<PartSlice> result = new ArrayList<>(parts.size());
+            LocalDateTime partStart = scheduleStart != null && scheduleStart.isAfter(period.getStartTime())
+                    ? scheduleStart : period.getStartTime();
+            for (TaskPart tp : parts) {
+                LocalDateTime partEnd = partStart.plus(tp.getDuration());
+                if (partStart.isBefore(end) && (partEnd.isAfter(start) || !partStart.isBefore(start))) {
+                    result.add(new PartSlice(tp, partStart.isBefore(start) ? start : partStart,
+                            partEnd.isAfter(end) ? end : partEnd));
+                }
+                partStart = partEnd;
+            }
+            return result;
+        }
+
+        // the period as if it ran from start to end, with the parts of its parts that run in that time
+        StringBuilder appendTo(StringBuilder sb) {
+            if (isWhole()) {
+                return period.appendTo(sb, start, end);
+            }
+            period.appendTimesTo(sb, start, end);
+            for (PartSlice ps : getTaskParts()) {
+                ps.part.appendTo(sb.append("\n\t\t"), ps.getDuration());
+            }
+            return sb;
+        }
+    }
+
+    // A task part, or the part of it in a period slice
+    public static final class PartSlice {
+
+        private final TaskPart part;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private PartSlice(TaskPart part, LocalDateTime start, LocalDateTime end) {
+            this.part = part;
+            this.start = start;
+            this.end = end;
+        }
+
+        public TaskPart getTaskPart() {
+            return part;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public Duration getDuration() {
+            return Duration.between(start, end);
+        }
+    }
+
+    // An event, or the part of it on the date. Start and end are local times in the schedule zone.
+    public static final class EventSlice {
+
+        private final Event event;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final long clippedStart;    // epoch second of the midnight the slice starts at, or NOT_CLIPPED
+        private final long clippedEnd;
+
+        private EventSlice(Event event, ZoneId zone, ZoneOffsetCache offsets, long clippedStart, long clippedEnd) {
+            this.event = event;
+            this.clippedStart = clippedStart;
+            this.clippedEnd = clippedEnd;
+            start = clippedStart == NOT_CLIPPED ? event.getLocalStartDateTime(zone) : localDateTime(offsets.toLocalEpochSecond(clippedStart));
+            end = clippedEnd == NOT_CLIPPED ? event.getLocalEndDateTime(zone) : localDateTime(offsets.toLocalEpochSecond(clippedEnd));
+        }
+
+        public Event getEvent() {
+            return event;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public Duration getDuration() {
+            ZonedDateTime s = event.getStartTime();
+            ZonedDateTime e = event.getEndTime();
+            long seconds = (clippedEnd == NOT_CLIPPED ? e.toEpochSecond() : clippedEnd) - (clippedStart == NOT_CLIPPED ? s.toEpochSecond() : clippedStart);
+            int nanos = (clippedEnd == NOT_CLIPPED ? e.getNano() : 0) - (clippedStart == NOT_CLIPPED ? s.getNano() : 0);
+            return Duration.ofSeconds(seconds, nanos);
+        }
+
+        StringBuilder appendTo(StringBuilder sb) {
+            return event.appendTo(sb, start, getDuration());
+        }
+    }
+
+    private static final long SECONDS_PER_DAY = 86400;
+    private static final long NOT_CLIPPED = Long.MIN_VALUE;
+
+    private static LocalDateTime localDateTime(long localEpochSecond) {
+        return LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+    }
+
+    // A schedule's periods and events as sorted columns of whole seconds, local for periods and instants for
+    // events, with ends rounded up so that "ends after a midnight" can be answered to the second; alongside
+    // each, the latest end so far tells whether anything up to an entry can still reach a given midnight.
+    // Immutable once built, so a Schedule builds them once for all its day iterators.
+    static final class Columns {
+
+        private final ZoneId zone;
+        private final ZoneOffsetCache offsets;
+        private final LocalDateTime scheduleStart;
+
+        private final WorkPeriod[] periods;
+        private final long[] periodStarts;
+        private final long[] periodEnds;
+        private final long[] periodMaxEnds;
+
+        private final Event[] events;
+        private final long[] eventStarts;
+        private final long[] eventEnds;
+        private final long[] eventMaxEnds;
+
+        Columns(Schedule schedule) {
+            zone = schedule.getZoneId();
+            offsets = ZoneOffsetCache.of(zone);
+            scheduleStart = schedule.getScheduleStart();
+
+            periods = schedule.getScheduledPeriods().toArray(new WorkPeriod[0]);
+            periodStarts = new long[periods.length];
+            periodEnds = new long[periods.length];
+            periodMaxEnds = new long[periods.length];
+            for (int i = 0; i < periods.length; i++) {
+                periodStarts[i] = periods[i].getStartTime().toEpochSecond(ZoneOffset.UTC);
+                periodEnds[i] = ceilingSecond(periods[i].getEndTime().toEpochSecond(ZoneOffset.UTC), periods[i].getEndTime().getNano());
+                periodMaxEnds[i] = i == 0 ? periodEnds[i] : Math.max(periodMaxEnds[i - 1], periodEnds[i]);
+            }
+
+            events = schedule.getEvents().toArray(new Event[0]);
+            eventStarts = new long[events.length];
+            eventEnds = new long[events.length];
+            eventMaxEnds = new long[events.length];
+            for (int i = 0; i < events.length; i++) {
+                eventStarts[i] = events[i].getStartTime().toEpochSecond();
+                eventEnds[i] = ceilingSecond(events[i].getEndTime().toEpochSecond(), events[i].getEndTime().getNano());
+                eventMaxEnds[i] = i == 0 ? eventEnds[i] : Math.max(eventMaxEnds[i - 1], eventEnds[i]);
+            }
+        }
+
+        private LocalDate localDate(long epochSecond) {
+            return LocalDate.ofEpochDay(Math.floorDiv(offsets.toLocalEpochSecond(epochSecond), SECONDS_PER_DAY));
+        }
+
+        private static long ceilingSecond(long second, int nano) {
+            return nano == 0 ? second : second + 1;
+        }
+    }
+
+    // The days of a schedule, in date order, skipping those with nothing on them. Cursors into the columns
+    // only move forward, so walking every day costs O(n) besides the days themselves.
+    static final class Days implements Iterator<DaySlice> {
+
+        private final Columns columns;
+        private LocalDate next;
+        private int periodFrom;
+        private int periodTo;
+        private int eventFrom;
+        private int eventTo;
+
+        Days(Columns columns) {
+            this.columns = columns;
+            next = earliest(columns.periods.length == 0 ? null : LocalDate.ofEpochDay(Math.floorDiv(columns.periodStarts[0], SECONDS_PER_DAY)),
+                    columns.events.length == 0 ? null : columns.localDate(columns.eventStarts[0]));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public DaySlice next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Columns c = columns;
+            LocalDate date = next;
+            long localStart = date.toEpochDay() * SECONDS_PER_DAY;
+            long localEnd = localStart + SECONDS_PER_DAY;
+            long instantStart = c.offsets.toEpochSecond(localStart);
+            long instantEnd = c.offsets.toEpochSecond(localEnd);
+
+            periodFrom = advance(periodFrom, c.periodMaxEnds, c.periodStarts, localStart);
+            periodTo = Math.max(periodTo, periodFrom);
+            while (periodTo < c.periodStarts.length && c.periodStarts[periodTo] < localEnd) periodTo++;
+            eventFrom = advance(eventFrom, c.eventMaxEnds, c.eventStarts, instantStart);
+            eventTo = Math.max(eventTo, eventFrom);
+            while (eventTo < c.eventStarts.length && c.eventStarts[eventTo] < instantEnd) eventTo++;
+            DaySlice slice = new DaySlice(c, date, instantStart, instantEnd, periodFrom, periodTo, eventFrom, eventTo);
+
+            // the next date is the following one if anything begun by now runs past midnight, otherwise
+            // the date of whatever starts next
+            LocalDate following = date.plusDays(1);
+            LocalDate nextPeriodDate = periodTo > 0 && c.periodMaxEnds[periodTo - 1] > localEnd ? following
+                    : periodTo < c.periods.length ? LocalDate.ofEpochDay(Math.floorDiv(c.periodStarts[periodTo], SECONDS_PER_DAY)) : null;
+            LocalDate nextEventDate = eventTo > 0 && c.eventMaxEnds[eventTo - 1] > instantEnd ? following
+                    : eventTo < c.events.length ? c.localDate(c.eventStarts[eventTo]) : null;
+            next = earliest(nextPeriodDate, nextEventDate);
+            if (next != null && !next.isAfter(date)) {
+                // only possible where a zone puts its clocks back across midnight
+                next = following;
+            }
+            return slice;
+        }
+
+        // the first entry from the given one that ends after the day start or starts in the day
+        private static int advance(int from, long[] maxEnds, long[] starts, long dayStart) {
+            while (from < starts.length && maxEnds[from] <= dayStart && starts[from] < dayStart) {
+                from++;
+            }
+            return from;
+        }
+
+        private static LocalDate earliest(LocalDate a, LocalDate b) {
+            if (a == null) return b;
+            if (b == null) return a;
+            return a.isBefore(b) ? a : b;
+        }
+    }
+}
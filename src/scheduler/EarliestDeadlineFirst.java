@@ -0,0 +1,278 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// Earliest deadline first, in two passes over columns of epoch seconds, each O(n log n) in the number of
+// tasks plus O(log n) per period.
+//
+// The first decides which tasks to leave out, as Moore and Hodgson's algorithm does for a single machine:
+// tasks are taken in deadline order, and whenever those taken so far need more time than the periods hold
+// before the current deadline, the longest of them is dropped (the lowest in priority of equally long
+// ones). This leaves out as few tasks as it can, but does not account for earliest starts or for time
+// wasted at the ends of periods, which the second pass reports if they matter.
+//
+// The second walks the periods in order, keeping the tasks that can start in order of deadline and then
+// priority. It works on the first task until the task is done, its deadline passes or the period ends; a
+// task that becomes ready meanwhile waits for that. A task is not split at all if less than its minimum
+// part is left of the period; the ready task with the next earliest deadline that fits is worked on instead,
+// and the rest of the period is only left unused if none does. No part is placed after its deadline: a task
+// that cannot make it in the time left is dropped with whatever it had already been given. Tasks without a
+// deadline come after all those with one.
+//
+// Times and durations are handled to the second; any fraction of a second is ignored.
+final class EarliestDeadlineFirst implements SchedulingStrategy {
+
+    static final EarliestDeadlineFirst INSTANCE = new EarliestDeadlineFirst();
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private EarliestDeadlineFirst() {
+    }
+
+    @Override
+    public List<InfeasibleTask> populate(List<WorkPeriod> periods, List<Task> tasks, LocalDateTime scheduleStart, ZoneId zoneId) {
+        return new Run(periods, tasks, scheduleStart, zoneId).populate();
+    }
+
+    private static final class Run {
+
+        private final List<WorkPeriod> periods;
+        private final List<Task> tasks;
+        private final ZoneOffsetCache offsets;
+
+        // period columns; starts are no earlier than the schedule start, and capacityBefore[i] is the free
+        // time in the periods before period i
+        private final long[] periodStarts;
+        private final long[] periodEnds;
+        private final long[] capacityBefore;
+
+        // task columns
+        private final long[] releases;
+        private final long[] deadlines;
+        private final long[] remaining;
+        private final long[] minimumParts;
+        private final InfeasibleTask.Reason[] reasons;     // set once a task is given up
+        private final TaskPart[] parts;                     // the part still to be placed of each task begun
+        private final Integer[] byDeadline;                 // the tasks by deadline and then priority
+        private final int[] deadlineRanks;                  // each task's place in byDeadline
+
+        Run(List<WorkPeriod> periods, List<Task> tasks, LocalDateTime scheduleStart, ZoneId zoneId) {
+            this.periods = periods;
+            this.tasks = tasks;
+            offsets = ZoneOffsetCache.of(zoneId);
+            long startSecond = offsets.toEpochSecond(scheduleStart);
+
+            int periodCount = periods.size();
+            periodStarts = new long[periodCount];
+            periodEnds = new long[periodCount];
+            capacityBefore = new long[periodCount + 1];
+            for (int i = 0; i < periodCount; i++) {
+                WorkPeriod p = periods.get(i);
+                periodEnds[i] = offsets.toEpochSecond(p.getEndTime());
+                periodStarts[i] = Math.min(periodEnds[i], Math.max(offsets.toEpochSecond(p.getStartTime()), startSecond));
+                capacityBefore[i + 1] = capacityBefore[i] + periodEnds[i] - periodStarts[i];
+            }
+
+            int taskCount = tasks.size();
+            releases = new long[taskCount];
+            deadlines = new long[taskCount];
+            remaining = new long[taskCount];
+            minimumParts = new long[taskCount];
+            reasons = new InfeasibleTask.Reason[taskCount];
+            parts = new TaskPart[taskCount];
+            for (int i = 0; i < taskCount; i++) {
+                Task t = tasks.get(i);
+                releases[i] = t.getEarliestStart() == null ? startSecond : Math.max(startSecond, offsets.toEpochSecond(t.getEarliestStart()));
+                deadlines[i] = t.getDeadline() == null ? NO_DEADLINE : offsets.toEpochSecond(t.getDeadline());
+                remaining[i] = t.getDuration().getSeconds();
+                minimumParts[i] = Math.max(1, t.getMinimumPart().getSeconds());
+            }
+            byDeadline = indexes(taskCount);
+            Arrays.sort(byDeadline, Comparator.comparingLong((Integer i) -> deadlines[i]).thenComparingInt(i -> i));
+            deadlineRanks = new int[taskCount];
+            for (int rank = 0; rank < taskCount; rank++) {
+                deadlineRanks[byDeadline[rank]] = rank;
+            }
+        }
+
+        List<InfeasibleTask> populate() {
+            Integer[] accepted = admit();
+            place(accepted);
+
+            List<InfeasibleTask> result = new ArrayList<>();
+            for (int i = 0; i < tasks.size(); i++) {
+                if (remaining[i] > 0) {
+                    Task t = tasks.get(i);
+                    Duration scheduled = Duration.ofSeconds(t.getDuration().getSeconds() - remaining[i]);
+                    result.add(new InfeasibleTask(t, reasons[i] == null ? InfeasibleTask.Reason.NO_TIME : reasons[i], scheduled));
+                }
+            }
+            return result;
+        }
+
+        // The first pass; returns the tasks kept, in order of earliest start and then priority
+        private Integer[] admit() {
+            PriorityQueue<Integer> longest = new PriorityQueue<>(
+                    Comparator.comparingLong((Integer i) -> remaining[i]).thenComparingInt(i -> i).reversed());
+            long needed = 0;
+            for (int i : byDeadline) {
+                longest.add(i);
+                needed += remaining[i];
+                if (needed > capacityUntil(deadlines[i])) {
+                    int dropped = longest.poll();
+                    needed -= remaining[dropped];
+                    reasons[dropped] = deadlines[i] == NO_DEADLINE ? InfeasibleTask.Reason.NO_TIME : InfeasibleTask.Reason.MISSES_DEADLINE;
+                }
+            }
+            Integer[] accepted = longest.toArray(new Integer[0]);
+            Arrays.sort(accepted, Comparator.comparingLong((Integer i) -> releases[i]).thenComparingInt(i -> i));
+            return accepted;
+        }
+
+        // The second pass. A period's task parts run on from its start, so where time is left unused before
+        // a task becomes ready, the period is split there.
+        private void place(Integer[] byRelease) {
+            ReadyTasks ready = new ReadyTasks(tasks.size());
+            List<WorkPeriod> result = new ArrayList<>(periods.size());
+            int released = 0;
+            for (int period = 0; period < periods.size(); period++) {
+                WorkPeriod piece = periods.get(period);
+                long time = periodStarts[period];
+                long end = periodEnds[period];
+                while (time < end) {
+                    while (released < byRelease.length && releases[byRelease[released]] <= time) {
+                        int task = byRelease[released++];
+                        ready.set(deadlineRanks[task], shortestPart(task));
+                    }
+                    // the first task in deadline order worth starting a part of in what is left of the period
+                    int rank = ready.first(end - time);
+                    if (rank < 0) {
+                        if (released < byRelease.length && releases[byRelease[released]] < end) {
+                            time = releases[byRelease[released]];
+                            LocalDateTime splitTime = LocalDateTime.ofEpochSecond(offsets.toLocalEpochSecond(time), 0, ZoneOffset.UTC);
+                            result.add(WorkPeriod.of(piece.getStartTime(), splitTime, piece.getTaskParts()));
+                            piece = WorkPeriod.of(splitTime, piece.getEndTime());
+                            continue;
+                        }
+                        break;
+                    }
+                    int task = byDeadline[rank];
+                    if (capacityUntil(deadlines[task]) - capacityUntil(time) < remaining[task]) {
+                        // cannot be finished in time, however the rest of the time is spent
+                        ready.remove(rank);
+                        reasons[task] = InfeasibleTask.Reason.MISSES_DEADLINE;
+                        continue;
+                    }
+                    // so a deadline before the end of the period leaves time enough to finish the task
+                    long available = Math.min(end, deadlines[task]) - time;
+                    if (available >= remaining[task]) {
+                        time += remaining[task];
+                        place(piece, task, remaining[task]);
+                        ready.remove(rank);
+                    } else {
+                        time = end;
+                        place(piece, task, available);
+                        ready.set(rank, shortestPart(task));
+                    }
+                }
+                result.add(piece);
+            }
+            periods.clear();
+            periods.addAll(result);
+        }
+
+        // the least time worth working on the task for: its minimum part, or less if that would finish it
+        private long shortestPart(int task) {
+            return Math.min(remaining[task], minimumParts[task]);
+        }
+
+        private void place(WorkPeriod piece, int task, long seconds) {
+            TaskPart part = parts[task] == null ? TaskPart.wholeOf(tasks.get(task)) : parts[task];
+            if (seconds < remaining[task]) {
+                List<TaskPart> split = part.split(Duration.ofSeconds(seconds));
+                piece.addTaskPart(split.get(0));
+                parts[task] = split.get(1);
+            } else {
+                piece.addTaskPart(part);
+                parts[task] = null;
+            }
+            remaining[task] -= seconds;
+        }
+
+        // the free time in the periods from the schedule start to the given time
+        private long capacityUntil(long time) {
+            int low = 0;
+            int high = periodStarts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (periodStarts[mid] < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            // periods before low start before time
+            if (low == 0) {
+                return 0;
+            }
+            return capacityBefore[low - 1] + Math.min(periodEnds[low - 1], time) - periodStarts[low - 1];
+        }
+
+        private static Integer[] indexes(int count) {
+            Integer[] result = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = i;
+            }
+            return result;
+        }
+    }
+
+    // The tasks ready to be worked on, by place in deadline order, each with the shortest part worth placing of
+    // it. A tree of the least of those under each node finds the first task whose part fits in a given time in
+    // O(log n).
+    private static final class ReadyTasks {
+
+        private static final long NOT_READY = Long.MAX_VALUE;
+
+        private final int leaves;
+        private final long[] shortest;      // shortest[1] is the root, the children of node k are 2k and 2k + 1
+
+        ReadyTasks(int count) {
+            int n = 1;
+            while (n < count) {
+                n <<= 1;
+            }
+            leaves = n;
+            shortest = new long[2 * n];
+            Arrays.fill(shortest, NOT_READY);
+        }
+
+        void set(int rank, long part) {
+            int k = leaves + rank;
+            shortest[k] = part;
+            for (k >>>= 1; k > 0; k >>>= 1) {
+                shortest[k] = Math.min(shortest[2 * k], shortest[2 * k + 1]);
+            }
+        }
+
+        void remove(int rank) {
+            set(rank, NOT_READY);
+        }
+
+        // the first ready task with a part no longer than the given time, or -1 if there is none
+        int first(long time) {
+            if (shortest[1] > time) {
+                return -1;
+            }
+            int k = 1;
+            while (k < leaves) {
+                k = shortest[2 * k] <= time ? 2 * k : 2 * k + 1;
+            }
+            return k - leaves;
+        }
+    }
+}
@@ -1,9 +1,9 @@
+package scheduler;
+
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Stream;
@@ -33,12 +33,24 @@ public class Event implements Comparable<Event>, Splittable<Event> {
         return startTime.toInstant().compareTo(e.startTime.toInstant());
     }
 
+    ZonedDateTime getStartTime() {
+        return startTime;
+    }
+
+    ZonedDateTime getEndTime() {
+        return endTime;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
     public LocalDateTime getLocalStartDateTime(ZoneId zone) {
-        return startTime.withZoneSameInstant(zone).toLocalDateTime();
+        return ZoneOffsetCache.of(zone).toLocalDateTime(startTime);
     }
 
     public LocalDateTime getLocalEndDateTime(ZoneId zone) {
-        return endTime.withZoneSameInstant(zone).toLocalDateTime();
+        return ZoneOffsetCache.of(zone).toLocalDateTime(endTime);
     }
 
     public Event withStartTime(ZonedDateTime startTime) {
@@ -51,20 +63,40 @@ public class Event implements Comparable<Event>, Splittable<Event> {
 
     // For use in displaying a schedule
     public String toString(ZoneId zone) {
-        Duration dur = Duration.between(startTime, endTime);
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
-        return ("\n\t" + description + ": " + timeFormatter.format(startTime.withZoneSameInstant(zone)) + ", duration = " + Utils.formatDuration(dur));
+        return appendTo(new StringBuilder(), zone).toString();
+    }
+
+    StringBuilder appendTo(StringBuilder sb, ZoneId zone) {
+        return appendTo(sb, getLocalStartDateTime(zone), Duration.between(startTime, endTime));
+    }
+
+    // as if the event started at localStart and lasted for duration; for a slice of it
+    StringBuilder appendTo(StringBuilder sb, LocalDateTime localStart, Duration duration) {
+        sb.append("\n\t").append(description).append(": ");
+        Utils.shortTimeFormatter().formatTo(localStart, sb);
+        return Utils.appendDuration(sb.append(", duration = "), duration);
     }
 
     public List<Event> split(LocalDateTime ldtSplitTime, ZoneId zone) {
-        ZonedDateTime zdtSplitTime = ZonedDateTime.of(ldtSplitTime, zone);
-        if (zdtSplitTime.isAfter(startTime) && zdtSplitTime.isBefore(endTime)) {
+        // only create the split time as a ZonedDateTime if the event really is split
+        long splitSecond = ZoneOffsetCache.of(zone).toEpochSecond(ldtSplitTime);
+        int splitNano = ldtSplitTime.getNano();
+        if (isAfter(splitSecond, splitNano, startTime) && isAfter(endTime.toEpochSecond(), endTime.getNano(), splitSecond, splitNano)) {
+            ZonedDateTime zdtSplitTime = ZonedDateTime.of(ldtSplitTime, zone);
             return Arrays.asList(Event.of(startTime, zdtSplitTime, description), Event.of(zdtSplitTime, endTime, description));
         } else {
             return Arrays.asList(this);
         }
     }
 
+    private static boolean isAfter(long second, int nano, ZonedDateTime other) {
+        return isAfter(second, nano, other.toEpochSecond(), other.getNano());
+    }
+
+    private static boolean isAfter(long second, int nano, long otherSecond, int otherNano) {
+        return second > otherSecond || (second == otherSecond && nano > otherNano);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -0,0 +1,183 @@
+package scheduler;
+
+import java.time.*;
+import java.util.*;
+
+// Answers free/busy questions about a Schedule in O(log n) each. Busy time is the time of the schedule's
+// events and of its task parts, which fill each period from its start (or from the schedule start, for
+// the period holding it); free time is the rest of the work periods from the schedule start on. Both are
+// kept as sorted, disjoint intervals of epoch seconds, with a max tree over the lengths of the free ones
+// to find the first long enough for a slot.
+//
+// Times are handled to the second; any fraction of a second is ignored.
+public class FreeBusyIndex {
+
+    private final ZoneId zoneId;
+    private final long[] freeStarts;
+    private final long[] freeEnds;
+    private final long[] busyStarts;
+    private final long[] busyEnds;
+
+    // maxFree[1] is the root; the leaves, from maxFree[leaves], hold the length of each free interval
+    private final long[] maxFree;
+    private final int leaves;
+
+    private FreeBusyIndex(ZoneId zoneId, long[][] free, long[][] busy) {
+        this.zoneId = zoneId;
+        freeStarts = free[0];
+        freeEnds = free[1];
+        busyStarts = busy[0];
+        busyEnds = busy[1];
+
+        leaves = Integer.highestOneBit(Math.max(1, freeStarts.length * 2 - 1));
+        maxFree = new long[leaves * 2];
+        Arrays.fill(maxFree, -1);
+        for (int i = 0; i < freeStarts.length; i++) {
+            maxFree[leaves + i] = freeEnds[i] - freeStarts[i];
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+            maxFree[node] = Math.max(maxFree[2 * node], maxFree[2 * node + 1]);
+        }
+    }
+
+    public static FreeBusyIndex of(Schedule schedule) {
+        ZoneOffsetCache offsets = ZoneOffsetCache.of(schedule.getZoneId());
+        LocalDateTime scheduleStart = schedule.getScheduleStart();
+        long scheduleStartSecond = scheduleStart == null ? Long.MIN_VALUE : offsets.toEpochSecond(scheduleStart);
+
+        List<WorkPeriod> periods = schedule.getScheduledPeriods();
+        NavigableSet<Event> events = schedule.getEvents();
+        long[] freeStarts = new long[periods.size()];
+        long[] freeEnds = new long[periods.size()];
+        int freeCount = 0;
+        long[] busyStarts = new long[periods.size() + events.size()];
+        long[] busyEnds = new long[periods.size() + events.size()];
+        int busyCount = 0;
+
+        for (WorkPeriod p : periods) {
+            long start = Math.max(offsets.toEpochSecond(p.getStartTime()), scheduleStartSecond);
+            long end = offsets.toEpochSecond(p.getEndTime());
+            long taken = 0;
+            for (TaskPart tp : p.getTaskParts()) {
+                taken += tp.getDuration().getSeconds();
+            }
+            long partsEnd = Math.min(end, start + taken);
+            if (partsEnd > start) {
+                busyStarts[busyCount] = start;
+                busyEnds[busyCount++] = partsEnd;
+            }
+            if (end > Math.max(start, partsEnd)) {
+                freeStarts[freeCount] = Math.max(start, partsEnd);
+                freeEnds[freeCount++] = end;
+            }
+        }
+        for (Event e : events) {
+            busyStarts[busyCount] = e.getStartTime().toEpochSecond();
+            busyEnds[busyCount++] = e.getEndTime().toEpochSecond();
+        }
+        return new FreeBusyIndex(schedule.getZoneId(),
+                union(freeStarts, freeEnds, freeCount), union(busyStarts, busyEnds, busyCount));
+    }
+
+    // Sorts the intervals by start and merges those that overlap or touch
+    private static long[][] union(long[] starts, long[] ends, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+        long[] mergedStarts = new long[count];
+        long[] mergedEnds = new long[count];
+        int merged = 0;
+        for (int i : order) {
+            if (merged > 0 && starts[i] <= mergedEnds[merged - 1]) {
+                mergedEnds[merged - 1] = Math.max(mergedEnds[merged - 1], ends[i]);
+            } else if (ends[i] > starts[i]) {
+                mergedStarts[merged] = starts[i];
+                mergedEnds[merged++] = ends[i];
+            }
+        }
+        return new long[][]{Arrays.copyOf(mergedStarts, merged), Arrays.copyOf(mergedEnds, merged)};
+    }
+
+    public boolean isFree(ZonedDateTime time) {
+        return contains(freeStarts, freeEnds, time.toEpochSecond());
+    }
+
+    public boolean isBusy(ZonedDateTime time) {
+        return contains(busyStarts, busyEnds, time.toEpochSecond());
+    }
+
+    // Whether all of [from, to) is free
+    public boolean isFree(ZonedDateTime from, ZonedDateTime to) {
+        checkRange(from, to);
+        long fromSecond = from.toEpochSecond();
+        int i = floorIndex(freeStarts, fromSecond);
+        return i >= 0 && freeEnds[i] >= to.toEpochSecond();
+    }
+
+    // Whether any of [from, to) is busy
+    public boolean isBusy(ZonedDateTime from, ZonedDateTime to) {
+        checkRange(from, to);
+        int i = floorIndex(busyStarts, to.toEpochSecond() - 1);
+        return i >= 0 && busyEnds[i] > from.toEpochSecond();
+    }
+
+    // The earliest time, no earlier than after, that starts a free slot of the given length, if there is one
+    public Optional<ZonedDateTime> nextFreeSlot(ZonedDateTime after, Duration length) {
+        if (length.isNegative()) {
+            throw new IllegalArgumentException("Slot length cannot be negative: " + length);
+        }
+        long afterSecond = after.toEpochSecond() + (after.getNano() > 0 ? 1 : 0);
+        long seconds = length.getSeconds() + (length.getNano() > 0 ? 1 : 0);
+        int i = floorIndex(freeStarts, afterSecond);
+        if (i >= 0 && freeEnds[i] - afterSecond >= Math.max(seconds, 1)) {
+            return Optional.of(zoned(afterSecond));
+        }
+        int next = firstAtLeast(1, 0, leaves, i + 1, Math.max(seconds, 1));
+        return next < 0 ? Optional.empty() : Optional.of(zoned(freeStarts[next]));
+    }
+
+    private static void checkRange(ZonedDateTime from, ZonedDateTime to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range ends before it starts: " + from + " to " + to);
+        }
+    }
+
+    // index of the first free interval from the given one on that is at least length long, or -1
+    private int firstAtLeast(int node, int nodeFrom, int nodeTo, int from, long length) {
+        if (nodeTo <= from || maxFree[node] < length) {
+            return -1;
+        }
+        if (nodeTo - nodeFrom == 1) {
+            return nodeFrom;
+        }
+        int mid = (nodeFrom + nodeTo) >>> 1;
+        int left = firstAtLeast(2 * node, nodeFrom, mid, from, length);
+        return left >= 0 ? left : firstAtLeast(2 * node + 1, mid, nodeTo, from, length);
+    }
+
+    private ZonedDateTime zoned(long epochSecond) {
+        return Instant.ofEpochSecond(epochSecond).atZone(zoneId);
+    }
+
+    private static boolean contains(long[] starts, long[] ends, long second) {
+        int i = floorIndex(starts, second);
+        return i >= 0 && second < ends[i];
+    }
+
+    // index of the last element not greater than key, or -1 if there is none
+    private static int floorIndex(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
@@ -0,0 +1,40 @@
+package scheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+// The original first fit: the tasks, in order, are poured into the periods in turn. Once a task does not
+// fit, nothing after it is scheduled either.
+final class GreedyStrategy implements SchedulingStrategy {
+
+    static final GreedyStrategy INSTANCE = new GreedyStrategy();
+
+    private GreedyStrategy() {
+    }
+
+    @Override
+    public List<InfeasibleTask> populate(List<WorkPeriod> periods, List<Task> tasks, LocalDateTime scheduleStart, ZoneId zoneId) {
+        Deque<TaskPart> taskParts = wholeParts(tasks);
+        periods.forEach(p -> p.populateTaskPartList(taskParts, scheduleStart, zoneId));
+        return unplaced(taskParts);
+    }
+
+    static Deque<TaskPart> wholeParts(List<Task> tasks) {
+        Deque<TaskPart> taskParts = new ArrayDeque<>(tasks.size());
+        for (Task t : tasks) {
+            taskParts.add(TaskPart.wholeOf(t));
+        }
+        return taskParts;
+    }
+
+    // The tasks of the parts left over; only the first can have had some of it scheduled
+    static List<InfeasibleTask> unplaced(Deque<TaskPart> taskParts) {
+        List<InfeasibleTask> result = new ArrayList<>(taskParts.size());
+        for (TaskPart tp : taskParts) {
+            Task t = tp.getOwner();
+            result.add(new InfeasibleTask(t, InfeasibleTask.Reason.NO_TIME, t.getDuration().minus(tp.getDuration())));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,51 @@
+package scheduler;
+
+import java.time.Duration;
+
+// A task that a schedule could not fit in full, why, and how much of it was scheduled all the same
+public final class InfeasibleTask {
+
+    public enum Reason {
+        NO_TIME("not enough time"),
+        MISSES_DEADLINE("cannot be finished by its deadline");
+
+        private final String text;
+
+        Reason(String text) {
+            this.text = text;
+        }
+    }
+
+    private final Task task;
+    private final Reason reason;
+    private final Duration scheduled;
+
+    InfeasibleTask(Task task, Reason reason, Duration scheduled) {
+        this.task = task;
+        this.reason = reason;
+        this.scheduled = scheduled;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Duration getScheduled() {
+        return scheduled;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    StringBuilder appendTo(StringBuilder sb) {
+        sb.append(task.getDescription()).append(": ").append(reason.text).append(", ");
+        Utils.appendDuration(sb, scheduled).append(" of ");
+        return Utils.appendDuration(sb, task.getDuration()).append(" scheduled");
+    }
+}
@@ -0,0 +1,242 @@
+package scheduler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Measures how many schedule requests a SchedulerService answers, and how fast, with a given number of clients
+// asking back to back. It sets up a calendar of a year of work periods, a meeting a day and a backlog of
+// tasks, then has each client ask for its schedule from one of a number of start days in turn: with one start
+// day every request after the first is answered from the cache, with as many as there are requests none is.
+// Latencies are measured from sending a request to reading the whole response, after a warm-up that is not
+// counted.
+//
+//   LoadGenerator [clients [seconds [startDays [url | threads]]]]
+//
+// Without a url, it starts a service of its own in this JVM, on virtual threads, or with 1 or more threads on a
+// fixed pool of that many. Each client asks from a virtual thread of its own.
+public class LoadGenerator {
+
+    private static final String CALENDAR = "load";
+    private static final LocalDate FROM = LocalDate.of(2021, 1, 4);
+    private static final int WORKING_DAYS = 260;
+    private static final int TASKS = 200;
+    private static final ZoneId ZONE = ZoneId.of("Europe/London");
+
+    private final HttpClient client;
+    private final URI base;
+
+    public LoadGenerator(URI base) {
+        this.base = base;
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 10);
+        int startDays = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        SchedulerService service = null;
+        URI base;
+        if (args.length > 3 && args[3].startsWith("http")) {
+            base = URI.create(args[3]);
+        } else {
+            if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+                System.setProperty("sun.net.httpserver.nodelay", "true");
+            }
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+            InetSocketAddress address = new InetSocketAddress("localhost", 0);
+            service = (threads == 0 ? new SchedulerService(address) : new SchedulerService(address, threads)).start();
+            base = URI.create("http://localhost:" + service.getPort());
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(base);
+            generator.createCalendar();
+            generator.run(clients, startDays, duration.dividedBy(5));
+            System.out.println(generator.run(clients, startDays, duration));
+        } finally {
+            if (service != null) {
+                service.close();
+            }
+        }
+    }
+
+    // (Re)creates the calendar the load is run against
+    public void createCalendar() throws IOException, InterruptedException {
+        send("DELETE", "/calendars/" + CALENDAR);
+        expect(send("PUT", "/calendars/" + CALENDAR + "?workingDays=" + WORKING_DAYS + "&from=" + FROM), 201);
+        // FROM is a Monday, and the working days are whole weeks
+        for (int week = 0; week < WORKING_DAYS / 5; week++) {
+            LocalDate monday = FROM.plusWeeks(week);
+            for (int i = 0; i < 5; i++) {
+                String start = monday.plusDays(i).atTime(LocalTime.of(11, 0)).toString();
+                expect(send("POST", "/calendars/" + CALENDAR + "/events?start=" + start + "&zone=" + ZONE
+                        + "&duration=PT30M&description=standup"), 201);
+            }
+        }
+        for (int i = 0; i < TASKS; i++) {
+            expect(send("POST", "/calendars/" + CALENDAR + "/tasks?duration=PT" + (30 + (i * 37) % 180) + "M&description=task+" + i), 201);
+        }
+    }
+
+    // Has the given number of clients ask for schedules for the given time, each waiting for one answer before
+    // asking again
+    public Report run(int clients, int startDays, Duration duration) throws InterruptedException {
+        List<URI> requests = new ArrayList<>(startDays);
+        for (int i = 0; i < startDays; i++) {
+            requests.add(base.resolve("/calendars/" + CALENDAR + "/schedule?start=" + FROM.plusDays(i).atStartOfDay() + "&zone=" + ZONE));
+        }
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            long deadline = System.nanoTime() + duration.toNanos();
+            List<Future<Latencies>> futures = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                int first = c;
+                futures.add(executor.submit(() -> ask(requests, first, deadline)));
+            }
+            Latencies all = new Latencies();
+            for (Future<Latencies> f : futures) {
+                all.addAll(f.get());
+            }
+            return all.report(clients, duration);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Client failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Latencies ask(List<URI> requests, int first, long deadline) throws IOException, InterruptedException {
+        Latencies latencies = new Latencies();
+        for (int i = first; System.nanoTime() < deadline; i++) {
+            HttpRequest request = HttpRequest.newBuilder(requests.get(i % requests.size())).GET().build();
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long end = System.nanoTime();
+            if (response.statusCode() == 200) {
+                latencies.add(end - start);
+            } else {
+                latencies.errors++;
+            }
+        }
+        return latencies;
+    }
+
+    private HttpResponse<String> send(String method, String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path)).method(method, HttpRequest.BodyPublishers.noBody()).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void expect(HttpResponse<String> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException(response.request().uri() + " answered " + response.statusCode() + ": " + response.body());
+        }
+    }
+
+    private static final class Latencies {
+
+        private long[] nanos = new long[1024];
+        private int count;
+        private long errors;
+
+        void add(long latency) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, 2 * count);
+            }
+            nanos[count++] = latency;
+        }
+
+        void addAll(Latencies other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.nanos[i]);
+            }
+            errors += other.errors;
+        }
+
+        Report report(int clients, Duration duration) {
+            long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            return new Report(clients, count, errors, count / (duration.toNanos() / 1e9),
+                    percentile(sorted, 50), percentile(sorted, 99), count == 0 ? Duration.ZERO : Duration.ofNanos(sorted[count - 1]));
+        }
+
+        // nearest rank
+        private static Duration percentile(long[] sorted, int p) {
+            if (sorted.length == 0) {
+                return Duration.ZERO;
+            }
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            return Duration.ofNanos(sorted[Math.max(rank, 1) - 1]);
+        }
+    }
+
+    // What one run measured; only requests answered with 200 count towards the throughput and latencies
+    public static final class Report {
+
+        private final int clients;
+        private final long requests;
+        private final long errors;
+        private final double throughput;
+        private final Duration p50;
+        private final Duration p99;
+        private final Duration max;
+
+        Report(int clients, long requests, long errors, double throughput, Duration p50, Duration p99, Duration max) {
+            this.clients = clients;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        public int getClients() {
+            return clients;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        // requests a second
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public Duration getP50() {
+            return p50;
+        }
+
+        public Duration getP99() {
+            return p99;
+        }
+
+        public Duration getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("clients=%d requests=%d errors=%d throughput=%.0f/s p50=%.3fms p99=%.3fms max=%.3fms",
+                    clients, requests, errors, throughput, p50.toNanos() / 1e6, p99.toNanos() / 1e6, max.toNanos() / 1e6);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package scheduler;
+
+import java.util.Collections;
+import java.util.List;
+
+// What SchedulerCalendar.load added, and what it turned away. A work period is turned away if it overlaps or
+// touches one already in the calendar or one loaded before it; an event, if one already in the calendar or
+// loaded before it starts at the same instant. Input is taken in start order, so "before" means earlier
+// starting, or for the same start, earlier in the list.
+public final class LoadReport {
+
+    private final int periodsAdded;
+    private final int eventsAdded;
+    private final List<Conflict<WorkPeriod>> periodConflicts;
+    private final List<Conflict<Event>> eventConflicts;
+
+    LoadReport(int periodsAdded, int eventsAdded, List<Conflict<WorkPeriod>> periodConflicts, List<Conflict<Event>> eventConflicts) {
+        this.periodsAdded = periodsAdded;
+        this.eventsAdded = eventsAdded;
+        this.periodConflicts = Collections.unmodifiableList(periodConflicts);
+        this.eventConflicts = Collections.unmodifiableList(eventConflicts);
+    }
+
+    public int getPeriodsAdded() {
+        return periodsAdded;
+    }
+
+    public int getEventsAdded() {
+        return eventsAdded;
+    }
+
+    // in start order
+    public List<Conflict<WorkPeriod>> getPeriodConflicts() {
+        return periodConflicts;
+    }
+
+    // in start order
+    public List<Conflict<Event>> getEventConflicts() {
+        return eventConflicts;
+    }
+
+    // true if everything was added
+    public boolean isClean() {
+        return periodConflicts.isEmpty() && eventConflicts.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{periodsAdded=" + periodsAdded + ", eventsAdded=" + eventsAdded
+                + ", periodConflicts=" + periodConflicts.size() + ", eventConflicts=" + eventConflicts.size() + '}';
+    }
+
+    // An item that was not added, and the one it clashed with
+    public static final class Conflict<T> {
+
+        private final T rejected;
+        private final T conflictsWith;
+        private final boolean withExisting;
+
+        Conflict(T rejected, T conflictsWith, boolean withExisting) {
+            this.rejected = rejected;
+            this.conflictsWith = conflictsWith;
+            this.withExisting = withExisting;
+        }
+
+        public T getRejected() {
+            return rejected;
+        }
+
+        public T getConflictsWith() {
+            return conflictsWith;
+        }
+
+        // true if what it clashed with was already in the calendar, false if it was loaded with it
+        public boolean isWithExisting() {
+            return withExisting;
+        }
+    }
+}
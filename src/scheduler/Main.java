@@ -1,3 +1,5 @@
+package scheduler;
+
 import java.time.*;
 import java.time.temporal.TemporalAdjusters;
 import java.util.List;
@@ -0,0 +1,90 @@
+package scheduler;
+
+import java.time.*;
+import java.util.*;
+
+import static java.time.DayOfWeek.FRIDAY;
+import static java.time.DayOfWeek.MONDAY;
+
+// An event that recurs on given days of the week at the same local time in a zone, such as a daily
+// standup. A calendar keeps the rule rather than its occurrences; these are created one at a time, and
+// only for the stretch of time being scheduled.
+public class RecurringEvent {
+
+    private final Set<DayOfWeek> days;
+    private final LocalTime time;
+    private final Duration duration;
+    private final ZoneId zone;
+    private final String description;
+
+    private RecurringEvent(Set<DayOfWeek> days, LocalTime time, Duration duration, ZoneId zone, String description) {
+        this.days = days;
+        this.time = time;
+        this.duration = duration;
+        this.zone = zone;
+        this.description = description;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    // Occurrences must not overlap each other, so the duration has to be shorter than a day. An occurrence
+    // whose time falls in a DST gap starts when the gap ends, as ZonedDateTime.of resolves it.
+    public static RecurringEvent of(Set<DayOfWeek> days, LocalTime time, Duration duration, ZoneId zone, String description) {
+        if (days.isEmpty()) {
+            throw new IllegalArgumentException("Recurring event needs at least one day: " + description);
+        }
+        if (duration.isNegative() || duration.isZero() || duration.compareTo(Duration.ofDays(1)) >= 0) {
+            throw new IllegalArgumentException("Recurring event must last more than nothing and less than a day: " + duration);
+        }
+        return new RecurringEvent(EnumSet.copyOf(days), time, duration, zone, description);
+    }
+
+    // every working day, Monday to Friday
+    public static RecurringEvent onWorkingDays(LocalTime time, Duration duration, ZoneId zone, String description) {
+        return of(EnumSet.range(MONDAY, FRIDAY), time, duration, zone, description);
+    }
+
+    // The occurrences that end after the given instant, in start order, created as the iterator is advanced.
+    // There is no last one.
+    Iterator<Event> occurrencesFrom(Instant from) {
+        // an occurrence that starts two days earlier has ended, whatever DST does to the day in between
+        LocalDate firstDate = LocalDate.ofInstant(from, zone).minusDays(2);
+        return new Iterator<Event>() {
+            private LocalDate date = firstDate;
+            private Event next = advance();
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Event next() {
+                Event result = next;
+                next = advance();
+                return result;
+            }
+
+            private Event advance() {
+                while (true) {
+                    LocalDate d = date;
+                    date = date.plusDays(1);
+                    if (days.contains(d.getDayOfWeek())) {
+                        Event e = Event.of(ZonedDateTime.of(d, time, zone), duration, description);
+                        if (e.getEndTime().toInstant().isAfter(from)) {
+                            return e;
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "RecurringEvent{" + "days=" + days + ", time=" + time + ", duration=" + duration + ", zone=" + zone
+                + ", description='" + description + '\'' + '}';
+    }
+}
@@ -0,0 +1,281 @@
+package scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+public class Schedule {
+
+	private final ZoneId zoneId;
+	private final LocalDateTime scheduleStart;		// null if not known
+	private final List<WorkPeriod> scheduledPeriods;
+	private final NavigableSet<Event> events;		// a copy, so later changes to the calendar's do not show
+	private final boolean successful;
+	private final List<InfeasibleTask> infeasibleTasks;		// empty if not known
+	private final Schedule source;		// the schedule this one shows in another zone, or null
+	// worked out when first asked for; a schedule does not change once made
+	private volatile long[] periodInstants;		// start and end of each period, epoch seconds
+	private volatile Map<ZoneId, Schedule> projections;
+	private volatile DaySlice.Columns dayColumns;
+	private volatile FreeBusyIndex freeBusyIndex;
+
+	public Schedule(ZoneId zoneId, List<WorkPeriod> scheduledPeriods, NavigableSet<Event> events, boolean success) {
+		this(zoneId, null, scheduledPeriods, events, success);
+	}
+
+	// scheduleStart is the time from which the periods were populated with task parts
+	public Schedule(ZoneId zoneId, LocalDateTime scheduleStart, List<WorkPeriod> scheduledPeriods, NavigableSet<Event> events,
+					boolean success) {
+		this(zoneId, scheduleStart, scheduledPeriods, events, success, Collections.emptyList());
+	}
+
+	// successful if no task is infeasible
+	public Schedule(ZoneId zoneId, LocalDateTime scheduleStart, List<WorkPeriod> scheduledPeriods, NavigableSet<Event> events,
+					List<InfeasibleTask> infeasibleTasks) {
+		this(zoneId, scheduleStart, scheduledPeriods, events, infeasibleTasks.isEmpty(), infeasibleTasks);
+	}
+
+	Schedule(ZoneId zoneId, LocalDateTime scheduleStart, List<WorkPeriod> scheduledPeriods, NavigableSet<Event> events,
+			 boolean success, List<InfeasibleTask> infeasibleTasks) {
+		this.zoneId = zoneId;
+		this.scheduleStart = scheduleStart;
+		this.scheduledPeriods = splitPopulatedPeriods(scheduledPeriods, zoneId);
+		// built in linear time from a sorted set
+		this.events = Collections.unmodifiableNavigableSet(new TreeSet<>(events));
+		this.successful = success;
+		this.infeasibleTasks = Collections.unmodifiableList(infeasibleTasks);
+		this.source = null;
+	}
+
+	// a projection of source, whose periods are not split at midnight in this zone
+	private Schedule(Schedule source, ZoneId zoneId, LocalDateTime scheduleStart, List<WorkPeriod> scheduledPeriods) {
+		this.zoneId = zoneId;
+		this.scheduleStart = scheduleStart;
+		this.scheduledPeriods = scheduledPeriods;
+		this.events = source.events;
+		this.successful = source.successful;
+		this.infeasibleTasks = source.infeasibleTasks;
+		this.source = source;
+	}
+
+	// The same schedule as seen from another zone: each period runs over the same instants, shown in local
+	// time there, with the same task parts and events. A period that runs over midnight in the viewer's zone
+	// is shown clipped to each day, its task parts too, without being split, so the parts keep the numbers
+	// they have here. Each zone is worked out once, from the instants of the periods, and kept; seeing a
+	// projection in yet another zone goes back to this schedule.
+	public Schedule inZone(ZoneId viewerZone) {
+		if (source != null) {
+			return source.inZone(viewerZone);
+		}
+		if (viewerZone.equals(zoneId)) {
+			return this;
+		}
+		Map<ZoneId, Schedule> cache = projections;
+		if (cache == null) {
+			synchronized (this) {
+				if (projections == null) {
+					projections = new ConcurrentHashMap<>();
+				}
+				cache = projections;
+			}
+		}
+		return cache.computeIfAbsent(viewerZone, this::project);
+	}
+
+	private Schedule project(ZoneId viewerZone) {
+		long[] instants = periodInstants();
+		ZoneOffsetCache viewer = ZoneOffsetCache.of(viewerZone);
+		List<WorkPeriod> projected = new ArrayList<>(scheduledPeriods.size());
+		for (int i = 0; i < scheduledPeriods.size(); i++) {
+			WorkPeriod p = scheduledPeriods.get(i);
+			projected.add(WorkPeriod.of(localDateTime(viewer, instants[2 * i], p.getStartTime().getNano()),
+					localDateTime(viewer, instants[2 * i + 1], p.getEndTime().getNano()), p.getTaskParts()));
+		}
+		LocalDateTime projectedStart = scheduleStart == null ? null
+				: localDateTime(viewer, ZoneOffsetCache.of(zoneId).toEpochSecond(scheduleStart), scheduleStart.getNano());
+		return new Schedule(this, viewerZone, projectedStart, projected);
+	}
+
+	private long[] periodInstants() {
+		long[] instants = periodInstants;
+		if (instants == null) {
+			ZoneOffsetCache offsets = ZoneOffsetCache.of(zoneId);
+			instants = new long[2 * scheduledPeriods.size()];
+			for (int i = 0; i < scheduledPeriods.size(); i++) {
+				instants[2 * i] = offsets.toEpochSecond(scheduledPeriods.get(i).getStartTime());
+				instants[2 * i + 1] = offsets.toEpochSecond(scheduledPeriods.get(i).getEndTime());
+			}
+			periodInstants = instants;
+		}
+		return instants;
+	}
+
+	private static LocalDateTime localDateTime(ZoneOffsetCache offsets, long epochSecond, int nano) {
+		return LocalDateTime.ofEpochSecond(offsets.toLocalEpochSecond(epochSecond), nano, ZoneOffset.UTC);
+	}
+
+	// Splitting a populated period at midnight creates new TaskParts, which changes how its task's parts are
+	// numbered. It is done once, when the schedule is made and every other part has been created, so that
+	// the schedule shows the same numbering however often it is written.
+	private static List<WorkPeriod> splitPopulatedPeriods(List<WorkPeriod> periods, ZoneId zoneId) {
+		List<WorkPeriod> result = null;
+		for (int i = 0; i < periods.size(); i++) {
+			WorkPeriod p = periods.get(i);
+			if (!p.getTaskParts().isEmpty() && crossesMidnight(p.getStartTime(), p.getEndTime())) {
+				if (result == null) {
+					result = new ArrayList<>(periods.subList(0, i));
+				}
+				new MidnightSplitter().splitAtAllMidnights(p, zoneId).forEach(result::add);
+			} else if (result != null) {
+				result.add(p);
+			}
+		}
+		return result == null ? periods : result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		try {
+			writeTo(sb);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);   // cannot happen with a StringBuilder
+		}
+		return sb.toString();
+	}
+
+	// Writes the same text as toString, a day at a time, from the day slices, so that nothing is split at
+	// midnight to write it. Only one day's text is held in memory.
+	// As in the original rendering, where a period and an event start at the same local time only the
+	// event is written.
+	public void writeTo(Appendable out) throws IOException {
+		SchedulingMonitor monitor = SchedulingMonitor.rendering(zoneId);
+		int slicesClipped = write(out);
+		monitor.rendered(this, slicesClipped);
+	}
+
+	// returns how many of the slices written start at a midnight their period or event runs over, which is
+	// how many times it would have been split there
+	private int write(Appendable out) throws IOException {
+		if (!successful) {
+			out.append("Schedule unsuccessful: insufficent time for tasks");
+			StringBuilder sb = new StringBuilder();
+			for (InfeasibleTask t : infeasibleTasks) {
+				t.appendTo(sb.append("\n\t"));
+			}
+			out.append(sb);
+			return 0;
+		}
+
+		StringBuilder day = out instanceof StringBuilder ? (StringBuilder) out : new StringBuilder();
+		int clipped = 0;
+		for (Iterator<DaySlice> days = dayIterator(); days.hasNext(); ) {
+			DaySlice slice = days.next();
+			clipped += slice.appendTo(day.append("\n").append(slice.getDate()));
+			if (day != out) {
+				out.append(day);
+				day.setLength(0);
+			}
+		}
+		return clipped;
+	}
+
+	// The schedule a local day at a time, in date order; days with nothing on them are left out. Periods and
+	// events running over midnight appear on each day they touch, clipped to it, without being split.
+	public Iterator<DaySlice> dayIterator() {
+		DaySlice.Columns columns = dayColumns;
+		if (columns == null) {
+			columns = new DaySlice.Columns(this);
+			dayColumns = columns;
+		}
+		return new DaySlice.Days(columns);
+	}
+
+	// Free/busy questions about the schedule, from an index built on the first call and kept with it, so a
+	// schedule kept in a ScheduleCache is indexed once for as long as it is cached
+	public FreeBusyIndex freeBusyIndex() {
+		FreeBusyIndex index = freeBusyIndex;
+		if (index == null) {
+			index = FreeBusyIndex.of(this);
+			freeBusyIndex = index;
+		}
+		return index;
+	}
+
+	// The same days, by date
+	public NavigableMap<LocalDate, DaySlice> days() {
+		NavigableMap<LocalDate, DaySlice> result = new TreeMap<>();
+		dayIterator().forEachRemaining(d -> result.put(d.getDate(), d));
+		return result;
+	}
+
+	// The changes that turn this schedule into other, which must be in the same zone
+	public ScheduleDiff diff(Schedule other) {
+		return ScheduleDiff.between(this, other);
+	}
+
+	// whether splitAtAllMidnights would split something with these local start and end times
+	static boolean crossesMidnight(LocalDateTime start, LocalDateTime end) {
+		return end.toLocalDate().isAfter(start.toLocalDate()) && end.isAfter(start.truncatedTo(ChronoUnit.DAYS).plusDays(1));
+	}
+
+	ZoneId getZoneId() {
+		return zoneId;
+	}
+
+	LocalDateTime getScheduleStart() {
+		return scheduleStart;
+	}
+
+	NavigableSet<Event> getEvents() {
+		return events;
+	}
+
+	List<WorkPeriod> getScheduledPeriods() {
+		return scheduledPeriods;
+	}
+
+	boolean isSuccessful() {
+		return successful;
+	}
+
+	// The tasks that could not be scheduled in full, in the calendar's order
+	public List<InfeasibleTask> getInfeasibleTasks() {
+		return infeasibleTasks;
+	}
+
+	static class MidnightSplitter {
+
+		private int splits;		// how many times this has split something at a midnight
+
+		// Method to assist displaying a schedule by the day. It breaks a Splittable at midnight local time (using
+		// the supplied zone, if necessary), breaking it repeatedly if the Splittable spans more than one midnight.
+		public <E extends Splittable<E>> Stream<E> splitAtAllMidnights(E e, ZoneId zone) {
+			LocalDateTime currentMidnight = e.getLocalStartDateTime(zone).truncatedTo(ChronoUnit.DAYS);
+			Deque<E> splittingResult = new ArrayDeque<>();
+			splittingResult.add(e);
+			List<E> lastElementSplit;   // this List will contain one or two elements, depending on whether
+			// the last element in the Dequeu spans midnight local time
+			do  {
+				E currentElement = splittingResult.pollLast();
+				currentMidnight = currentMidnight.plusDays(1);
+				lastElementSplit = currentElement.split(currentMidnight, zone);
+				splittingResult.addAll(lastElementSplit);
+			} while (lastElementSplit.size() != 1);
+			splits += splittingResult.size() - 1;
+			return splittingResult.stream();
+		}
+
+		int getSplits() {
+			return splits;
+		}
+
+	}
+}
@@ -0,0 +1,199 @@
+package scheduler;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+// A bounded cache in front of a calendar's createSchedule, for callers that ask for the same schedules over and
+// over. A schedule is kept under the calendar's revision, which every change to the calendar bumps, with its
+// start and zone, so a cached schedule is never returned once the calendar has changed. Only the latest
+// revision's schedules can be asked for again, so those of earlier ones are dropped as soon as a later one is
+// seen; past the capacity, the least recently used schedule goes. A schedule does not change once made, so
+// every caller asking for the same one is handed the same Schedule.
+//
+// Safe for any number of threads in front of a ConcurrentSchedulerCalendar. Schedules are created outside the
+// cache's lock: two threads missing on the same schedule at once both create it, and the first to finish is
+// the one kept.
+public class ScheduleCache {
+
+    private final Supplier<SchedulerCalendar> calendar;     // the calendar as it is to be scheduled now
+    private final boolean timeline;                         // whether it is scheduled by the columnar kernel
+    private final int capacity;
+    private final LinkedHashMap<Key, Schedule> schedules;   // in order of use, least recent first
+    private long revision = -1;                             // the revision of the calendar the schedules are of
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    // Caches what calendar.createSchedule returns. The calendar must not be changed while a schedule is
+    // being created through the cache, as it must not while createSchedule runs.
+    public ScheduleCache(SchedulerCalendar calendar, int capacity) {
+        this(() -> {
+            calendar.compactIfDue();
+            return calendar;
+        }, false, capacity);
+    }
+
+    // Caches what calendar.createSchedule returns, scheduling each miss from the snapshot its revision is of
+    public ScheduleCache(ConcurrentSchedulerCalendar calendar, int capacity) {
+        this(calendar::current, true, capacity);
+    }
+
+    private ScheduleCache(Supplier<SchedulerCalendar> calendar, boolean timeline, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1: " + capacity);
+        }
+        this.calendar = calendar;
+        this.timeline = timeline;
+        this.capacity = capacity;
+        schedules = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Schedule> eldest) {
+                if (size() > ScheduleCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Schedule createSchedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        SchedulerCalendar current = calendar.get();
+        long currentRevision = current.getRevision();
+        Key key = new Key(scheduleStart, zoneId);
+        synchronized (this) {
+            if (currentRevision > revision) {
+                invalidations += schedules.size();
+                schedules.clear();
+                revision = currentRevision;
+            }
+            Schedule cached = currentRevision == revision ? schedules.get(key) : null;
+            if (cached != null) {
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        Schedule schedule = timeline ? current.timelineSchedule(scheduleStart, zoneId) : current.schedule(scheduleStart, zoneId);
+        synchronized (this) {
+            // a reader of a snapshot the calendar has since moved on from has nothing worth keeping
+            if (currentRevision == revision) {
+                Schedule first = schedules.putIfAbsent(key, schedule);
+                if (first != null) {
+                    return first;
+                }
+            }
+        }
+        return schedule;
+    }
+
+    public Schedule createSchedule(LocalDate scheduleDate, ZoneId zoneId) {
+        return createSchedule(scheduleDate.atStartOfDay(), zoneId);
+    }
+
+    // Drops every cached schedule; the statistics are kept
+    public synchronized void clear() {
+        invalidations += schedules.size();
+        schedules.clear();
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, invalidations, schedules.size(), capacity);
+    }
+
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        invalidations = 0;
+    }
+
+    private static final class Key {
+
+        private final LocalDateTime scheduleStart;
+        private final ZoneId zoneId;
+
+        Key(LocalDateTime scheduleStart, ZoneId zoneId) {
+            this.scheduleStart = Objects.requireNonNull(scheduleStart);
+            this.zoneId = Objects.requireNonNull(zoneId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return scheduleStart.equals(other.scheduleStart) && zoneId.equals(other.zoneId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * scheduleStart.hashCode() + zoneId.hashCode();
+        }
+    }
+
+    // The cache's counts since it was made or its statistics were last reset. Evictions are schedules dropped
+    // to keep within the capacity; invalidations, those dropped because the calendar changed or by clear().
+    public static final class Stats {
+
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long invalidations;
+        private final int size;
+        private final int capacity;
+
+        Stats(long hits, long misses, long evictions, long invalidations, int size, int capacity) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.invalidations = invalidations;
+            this.size = size;
+            this.capacity = capacity;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getInvalidations() {
+            return invalidations;
+        }
+
+        // how many schedules are cached now
+        public int getSize() {
+            return size;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        // the share of requests answered from the cache, 0 if there have been none
+        public double getHitRatio() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "ScheduleCache.Stats{hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                    + ", invalidations=" + invalidations + ", size=" + size + "/" + capacity + '}';
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package scheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// The changes that turn one schedule into another, for sending to a client that already shows the first.
+// Periods are matched by their start time and events by their start instant, in one merge over the two
+// schedules in time order; only the periods that differ have their task parts compared. A task part is known
+// by its task and its number, so a part that kept its place is not reported, however the task was rescheduled
+// around it.
+//
+// To apply the changes, first take out every period and task part removed or moved, then go through the rest
+// in order: an added or moved part goes in at its index in its period, and a changed part is replaced there.
+// Within a period its parts are given in index order, and the parts left in place are always in the order
+// they end up in.
+//
+// Whether the schedule succeeded is reported if it changed; the infeasible tasks are not compared.
+public final class ScheduleDiff {
+
+    public enum Kind {
+        PERIOD_ADDED("P+"), PERIOD_REMOVED("P-"), PERIOD_RESIZED("P~"),
+        PART_ADDED("T+"), PART_REMOVED("T-"), PART_MOVED("T>"), PART_CHANGED("T~"),
+        EVENT_ADDED("E+"), EVENT_REMOVED("E-"),
+        OUTCOME_CHANGED("S");
+
+        private final String code;
+
+        Kind(String code) {
+            this.code = code;
+        }
+
+        // the tag of the change's line in the compact form
+        public String getCode() {
+            return code;
+        }
+    }
+
+    private final List<Change> changes;
+
+    private ScheduleDiff(List<Change> changes) {
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    static ScheduleDiff between(Schedule from, Schedule to) {
+        if (!from.getZoneId().equals(to.getZoneId())) {
+            throw new IllegalArgumentException("Schedules in different zones: " + from.getZoneId() + ", " + to.getZoneId()
+                    + "; compare one with the other's inZone");
+        }
+        List<Change> changes = new ArrayList<>();
+        if (from.isSuccessful() != to.isSuccessful()) {
+            changes.add(new Change(Kind.OUTCOME_CHANGED, null, null, null, to.isSuccessful() ? 1 : 0, null, null));
+        }
+        diffPeriods(inStartOrder(from.getScheduledPeriods()), inStartOrder(to.getScheduledPeriods()), changes);
+        diffEvents(from.getEvents(), to.getEvents(), changes);
+        return new ScheduleDiff(changes);
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    // One line per change: its kind's code, then its fields, separated by spaces; any description comes last.
+    // Period times are local, in the schedules' zone; event times are instants.
+    public void writeTo(Appendable out) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (Change c : changes) {
+            c.appendTo(sb);
+            out.append(sb.append('\n'));
+            sb.setLength(0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            writeTo(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);   // cannot happen with a StringBuilder
+        }
+        return sb.toString();
+    }
+
+    // A schedule's periods are in start order as it makes them; a list from elsewhere is sorted
+    private static List<WorkPeriod> inStartOrder(List<WorkPeriod> periods) {
+        for (int i = 1; i < periods.size(); i++) {
+            if (periods.get(i - 1).compareTo(periods.get(i)) > 0) {
+                List<WorkPeriod> sorted = new ArrayList<>(periods);
+                Collections.sort(sorted);
+                return sorted;
+            }
+        }
+        return periods;
+    }
+
+    private static void diffPeriods(List<WorkPeriod> before, List<WorkPeriod> after, List<Change> changes) {
+        // the periods that differ, in start order, with null for the side a period is missing from
+        List<WorkPeriod> olds = new ArrayList<>();
+        List<WorkPeriod> news = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < before.size() || j < after.size()) {
+            int cmp = i == before.size() ? 1 : j == after.size() ? -1
+                    : before.get(i).getStartTime().compareTo(after.get(j).getStartTime());
+            if (cmp < 0) {
+                olds.add(before.get(i++));
+                news.add(null);
+            } else if (cmp > 0) {
+                olds.add(null);
+                news.add(after.get(j++));
+            } else {
+                WorkPeriod old = before.get(i++);
+                WorkPeriod now = after.get(j++);
+                if (!old.getEndTime().equals(now.getEndTime()) || !sameParts(old.getTaskParts(), now.getTaskParts())) {
+                    olds.add(old);
+                    news.add(now);
+                }
+            }
+        }
+
+        // where each part of a changed period was, and which parts are still there afterwards
+        Map<PartKey, Place> placesBefore = new HashMap<>();
+        Set<PartKey> keysAfter = new HashSet<>();
+        for (int k = 0; k < olds.size(); k++) {
+            WorkPeriod old = olds.get(k);
+            if (old != null) {
+                List<TaskPart> parts = old.getTaskParts();
+                for (int n = 0; n < parts.size(); n++) {
+                    placesBefore.put(new PartKey(parts.get(n)), new Place(old, n));
+                }
+            }
+            WorkPeriod now = news.get(k);
+            if (now != null) {
+                for (TaskPart tp : now.getTaskParts()) {
+                    keysAfter.add(new PartKey(tp));
+                }
+            }
+        }
+
+        for (int k = 0; k < olds.size(); k++) {
+            WorkPeriod old = olds.get(k);
+            WorkPeriod now = news.get(k);
+            if (now == null) {
+                changes.add(new Change(Kind.PERIOD_REMOVED, old.getStartTime(), null, null, -1, null, null));
+                continue;
+            }
+            if (old == null) {
+                changes.add(new Change(Kind.PERIOD_ADDED, now.getStartTime(), now.getEndTime(), null, -1, null, null));
+            } else {
+                if (!old.getEndTime().equals(now.getEndTime())) {
+                    changes.add(new Change(Kind.PERIOD_RESIZED, now.getStartTime(), now.getEndTime(), null, -1, null, null));
+                }
+                if (sameParts(old.getTaskParts(), now.getTaskParts())) {
+                    continue;
+                }
+                // the parts of a removed period go with it
+                for (TaskPart tp : old.getTaskParts()) {
+                    if (!keysAfter.contains(new PartKey(tp))) {
+                        changes.add(new Change(Kind.PART_REMOVED, old.getStartTime(), null, null, -1, tp, null));
+                    }
+                }
+            }
+            diffParts(old, now, placesBefore, changes);
+        }
+    }
+
+    // The parts of a period that are still in it keep their place if they stay in the same order; the fewest of
+    // them are reported moved, by keeping the longest run of them already in order.
+    private static void diffParts(WorkPeriod old, WorkPeriod now, Map<PartKey, Place> placesBefore, List<Change> changes) {
+        List<TaskPart> parts = now.getTaskParts();
+        int[] oldIndex = new int[parts.size()];
+        for (int n = 0; n < parts.size(); n++) {
+            Place place = placesBefore.get(new PartKey(parts.get(n)));
+            oldIndex[n] = place != null && place.period == old ? place.index : -1;
+        }
+        boolean[] inPlace = longestIncreasingRun(oldIndex);
+        for (int n = 0; n < parts.size(); n++) {
+            TaskPart tp = parts.get(n);
+            if (inPlace[n]) {
+                TaskPart was = old.getTaskParts().get(oldIndex[n]);
+                if (!samePart(was, tp)) {
+                    changes.add(new Change(Kind.PART_CHANGED, now.getStartTime(), null, null, n, tp, null));
+                }
+                continue;
+            }
+            Place place = placesBefore.get(new PartKey(tp));
+            if (place == null) {
+                changes.add(new Change(Kind.PART_ADDED, now.getStartTime(), null, null, n, tp, null));
+            } else {
+                changes.add(new Change(Kind.PART_MOVED, now.getStartTime(), null, place.period.getStartTime(), n, tp, null));
+            }
+        }
+    }
+
+    // Marks a longest strictly increasing subsequence of the values that are not -1, in O(n log n)
+    private static boolean[] longestIncreasingRun(int[] values) {
+        int n = values.length;
+        boolean[] marked = new boolean[n];
+        int[] tails = new int[n];        // for each length, the position ending the run of it with the smallest last value
+        int[] previous = new int[n];
+        int length = 0;
+        for (int k = 0; k < n; k++) {
+            if (values[k] < 0) continue;
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[tails[mid]] < values[k]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            previous[k] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = k;
+            if (lo == length) {
+                length++;
+            }
+        }
+        for (int k = length > 0 ? tails[length - 1] : -1; k >= 0; k = previous[k]) {
+            marked[k] = true;
+        }
+        return marked;
+    }
+
+    private static void diffEvents(NavigableSet<Event> before, NavigableSet<Event> after, List<Change> changes) {
+        Iterator<Event> olds = before.iterator();
+        Iterator<Event> news = after.iterator();
+        Event old = olds.hasNext() ? olds.next() : null;
+        Event now = news.hasNext() ? news.next() : null;
+        while (old != null || now != null) {
+            int cmp = old == null ? 1 : now == null ? -1 : old.compareTo(now);
+            if (cmp <= 0 && (cmp < 0 || !sameEvent(old, now))) {
+                changes.add(new Change(Kind.EVENT_REMOVED, null, null, null, -1, null, old));
+            }
+            if (cmp >= 0 && (cmp > 0 || !sameEvent(old, now))) {
+                changes.add(new Change(Kind.EVENT_ADDED, null, null, null, -1, null, now));
+            }
+            if (cmp <= 0) {
+                old = olds.hasNext() ? olds.next() : null;
+            }
+            if (cmp >= 0) {
+                now = news.hasNext() ? news.next() : null;
+            }
+        }
+    }
+
+    // over the same instants, whatever zone they are given in
+    private static boolean sameEvent(Event a, Event b) {
+        return a.getEndTime().toInstant().equals(b.getEndTime().toInstant()) && a.getDescription().equals(b.getDescription());
+    }
+
+    private static boolean sameParts(List<TaskPart> a, List<TaskPart> b) {
+        if (a.size() != b.size()) return false;
+        for (int k = 0; k < a.size(); k++) {
+            if (!samePart(a.get(k), b.get(k))) return false;
+        }
+        return true;
+    }
+
+    // shown the same: the same task, number, duration and number of parts
+    private static boolean samePart(TaskPart a, TaskPart b) {
+        return a.getOwner() == b.getOwner() && a.getPartSequenceNumber() == b.getPartSequenceNumber()
+                && a.getDuration().equals(b.getDuration()) && a.getScheduledTask().getPartCount() == b.getScheduledTask().getPartCount();
+    }
+
+    // One change. Which fields are set depends on the kind: the period's start for period and part changes, its
+    // end for periods added or resized, the part and its index in the period for parts, where a moved part was,
+    // and the event for events. For OUTCOME_CHANGED the index is 1 if the schedule now succeeds, 0 if not.
+    public static final class Change {
+
+        private final Kind kind;
+        private final LocalDateTime periodStart;
+        private final LocalDateTime periodEnd;
+        private final LocalDateTime fromPeriodStart;
+        private final int index;
+        private final TaskPart taskPart;
+        private final Event event;
+
+        Change(Kind kind, LocalDateTime periodStart, LocalDateTime periodEnd, LocalDateTime fromPeriodStart, int index,
+               TaskPart taskPart, Event event) {
+            this.kind = kind;
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            this.fromPeriodStart = fromPeriodStart;
+            this.index = index;
+            this.taskPart = taskPart;
+            this.event = event;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public LocalDateTime getPeriodStart() {
+            return periodStart;
+        }
+
+        public LocalDateTime getPeriodEnd() {
+            return periodEnd;
+        }
+
+        // the start of the period a moved part was in
+        public LocalDateTime getFromPeriodStart() {
+            return fromPeriodStart;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public TaskPart getTaskPart() {
+            return taskPart;
+        }
+
+        public Event getEvent() {
+            return event;
+        }
+
+        StringBuilder appendTo(StringBuilder sb) {
+            sb.append(kind.code);
+            switch (kind) {
+                case OUTCOME_CHANGED:
+                    return sb.append(' ').append(index);
+                case PERIOD_ADDED:
+                case PERIOD_RESIZED:
+                    return sb.append(' ').append(periodStart).append(' ').append(periodEnd);
+                case PERIOD_REMOVED:
+                    return sb.append(' ').append(periodStart);
+                case PART_REMOVED:
+                    sb.append(' ').append(periodStart).append(' ').append(taskPart.getPartSequenceNumber());
+                    return appendDescription(sb, taskPart.getOwner().getDescription());
+                case PART_MOVED:
+                    return appendPlacedPart(sb.append(' ').append(fromPeriodStart));
+                case PART_ADDED:
+                case PART_CHANGED:
+                    return appendPlacedPart(sb);
+                case EVENT_ADDED:
+                    sb.append(' ').append(event.getStartTime().toInstant()).append(' ').append(event.getEndTime().toInstant());
+                    return appendDescription(sb, event.getDescription());
+                case EVENT_REMOVED:
+                    return sb.append(' ').append(event.getStartTime().toInstant());
+                default:
+                    throw new IllegalStateException("Unknown change " + kind);
+            }
+        }
+
+        // where the part now is, then the part
+        private StringBuilder appendPlacedPart(StringBuilder sb) {
+            sb.append(' ').append(periodStart).append(' ').append(index)
+                    .append(' ').append(taskPart.getPartSequenceNumber()).append('/').append(taskPart.getScheduledTask().getPartCount())
+                    .append(' ').append(taskPart.getDuration().getSeconds());
+            return appendDescription(sb, taskPart.getOwner().getDescription());
+        }
+
+        // a description is the rest of the line, so a line break or backslash in it is escaped
+        private static StringBuilder appendDescription(StringBuilder sb, String description) {
+            sb.append(' ');
+            for (int k = 0; k < description.length(); k++) {
+                char c = description.charAt(k);
+                if (c == '\\') {
+                    sb.append("\\\\");
+                } else if (c == '\n') {
+                    sb.append("\\n");
+                } else if (c == '\r') {
+                    sb.append("\\r");
+                } else {
+                    sb.append(c);
+                }
+            }
+            return sb;
+        }
+
+        @Override
+        public String toString() {
+            return appendTo(new StringBuilder()).toString();
+        }
+    }
+
+    // a task part as known across schedule runs: its task and its number
+    private static final class PartKey {
+
+        private final Task task;
+        private final int number;
+
+        PartKey(TaskPart tp) {
+            task = tp.getOwner();
+            number = tp.getPartSequenceNumber();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof PartKey)) return false;
+            PartKey other = (PartKey) o;
+            return task == other.task && number == other.number;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(task) + number;
+        }
+    }
+
+    private static final class Place {
+
+        private final WorkPeriod period;
+        private final int index;
+
+        Place(WorkPeriod period, int index) {
+            this.period = period;
+            this.index = index;
+        }
+    }
+}
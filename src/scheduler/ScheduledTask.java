@@ -0,0 +1,33 @@
+package scheduler;
+
+import java.time.Duration;
+
+// A Task as scheduled in one run. It numbers the parts the task is split into, so that each part can show
+// its place among them; a new one is created for each run, and only that run's TaskParts refer to it.
+final class ScheduledTask {
+
+	private final Task task;
+	private int partCount;
+
+	ScheduledTask(Task task) {
+		this(task, 0);
+	}
+
+	// for a run whose parts have already been numbered, as when a schedule is read back from a snapshot
+	ScheduledTask(Task task, int partCount) {
+		this.task = task;
+		this.partCount = partCount;
+	}
+
+	Task getTask() {
+		return task;
+	}
+
+	int getPartCount() {
+		return partCount;
+	}
+
+	TaskPart createTaskPart(Duration d) {
+		return new TaskPart(this, d, ++partCount);
+	}
+}
@@ -0,0 +1,920 @@
+package scheduler;
+
+import java.time.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toCollection;
+
+public class SchedulerCalendar {
+
+    final private NavigableSet<WorkPeriod> workPeriods = new TreeSet<>(); // ordered by start time
+    final private NavigableSet<Event> events = new TreeSet<>();           // ordered by start time
+    final private List<Task> tasks = new ArrayList<>();                   // no natural order, user-ordered by priority
+    final private List<RecurringEvent> recurringEvents = new ArrayList<>();   // rules, expanded only while scheduling
+
+    // alternatively to workPeriods, a lazy source of work periods from a given date, and how far ahead of
+    // the schedule start to draw on it
+    private Function<LocalDate, Stream<WorkPeriod>> workPeriodGenerator;
+    private Period horizon;
+
+    private SchedulingStrategy strategy = SchedulingStrategy.greedy();
+
+    // no event or occurrence lasts longer, so none starting more than this before an instant runs past it
+    private Duration longestEvent = Duration.ZERO;
+
+    // in a rolling window, periods and events that ended more than retention before the clock's time are
+    // dropped, and schedules cover only the periods from their start on; retention is null if all is kept
+    private Duration retention;
+    private Clock clock;
+    private BiConsumer<List<WorkPeriod>, List<Event>> archive;
+
+    private long revision;              // bumped by every change to the calendar
+    private Timeline timeline;          // kept by reschedule, to be updated incrementally
+    private NavigableSet<Event> timelineEvents;     // the events timeline was built with
+    private boolean timelineSharesEvents;           // timelineEvents is events, or a view of it
+    private Event timelineEventsFloor;              // in a rolling window, where timelineEvents begin; else null
+    private long timelineRevision;      // the revision timeline is up to date with
+
+    public SchedulerCalendar() {
+    }
+
+    // A calendar with the same work periods, events, tasks and generator as other, which can be changed
+    // without affecting it. The sorted sets are copied in linear time.
+    SchedulerCalendar(SchedulerCalendar other) {
+        workPeriods.addAll(other.workPeriods);
+        events.addAll(other.events);
+        tasks.addAll(other.tasks);
+        recurringEvents.addAll(other.recurringEvents);
+        workPeriodGenerator = other.workPeriodGenerator;
+        horizon = other.horizon;
+        strategy = other.strategy;
+        longestEvent = other.longestEvent;
+        retention = other.retention;
+        clock = other.clock;
+        archive = other.archive;
+        revision = other.revision;
+    }
+
+    // A calendar of work periods and events that are already in order, built in linear time instead of
+    // with an overlap check for every period. Only neighbours are compared, to reject input that is out
+    // of order, overlapping or has two events starting at the same instant.
+    static SchedulerCalendar ofSorted(List<WorkPeriod> workPeriods, List<Event> events, List<Task> tasks) {
+        for (int i = 1; i < workPeriods.size(); i++) {
+            if (!workPeriods.get(i - 1).getEndTime().isBefore(workPeriods.get(i).getStartTime())) {
+                throw new IllegalArgumentException("Work Periods cannot overlap: " + workPeriods.get(i - 1) + "," + workPeriods.get(i));
+            }
+        }
+        for (int i = 1; i < events.size(); i++) {
+            if (events.get(i - 1).compareTo(events.get(i)) >= 0) {
+                throw new IllegalArgumentException("Events out of order: " + events.get(i - 1) + "," + events.get(i));
+            }
+        }
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.workPeriods.addAll(new SortedListView<>(workPeriods));
+        calendar.events.addAll(new SortedListView<>(events));
+        calendar.tasks.addAll(tasks);
+        for (Event e : events) {
+            calendar.noteDuration(e);
+        }
+        calendar.revision = 1;
+        return calendar;
+    }
+
+    // A list known to be in natural order, presented as a SortedSet so that TreeSet.addAll can build
+    // its tree directly from it instead of inserting element by element. Its subsets are views of sublists,
+    // found by binary search.
+    static class SortedListView<E> extends AbstractSet<E> implements SortedSet<E> {
+
+        private final List<E> list;
+
+        SortedListView(List<E> list) {
+            this.list = list;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return list.iterator();
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            @SuppressWarnings("unchecked")
+            E element = (E) o;
+            int i = indexOf(element);
+            return i < list.size() && compare(list.get(i), element) == 0;
+        }
+
+        @Override
+        public Comparator<? super E> comparator() {
+            return null;
+        }
+
+        @Override
+        public E first() {
+            if (list.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return list.get(0);
+        }
+
+        @Override
+        public E last() {
+            if (list.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return list.get(list.size() - 1);
+        }
+
+        @Override
+        public SortedSet<E> subSet(E fromElement, E toElement) {
+            if (compare(fromElement, toElement) > 0) {
+                throw new IllegalArgumentException("Subset starts after it ends: " + fromElement + ", " + toElement);
+            }
+            return new SortedListView<>(list.subList(indexOf(fromElement), indexOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<E> headSet(E toElement) {
+            return new SortedListView<>(list.subList(0, indexOf(toElement)));
+        }
+
+        @Override
+        public SortedSet<E> tailSet(E fromElement) {
+            return new SortedListView<>(list.subList(indexOf(fromElement), list.size()));
+        }
+
+        // the index of the first element no less than the given one, or the size if there is none
+        private int indexOf(E element) {
+            int low = 0;
+            int high = list.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(list.get(mid), element) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <E> int compare(E a, E b) {
+            return ((Comparable<? super E>) a).compareTo(b);
+        }
+    }
+
+    public Schedule createSchedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        compactIfDue();
+        return schedule(scheduleStart, zoneId);
+    }
+
+    // createSchedule without compacting first, for a calendar that may be shared with other threads
+    Schedule schedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        if (workPeriodGenerator != null) {
+            return createGeneratedSchedule(scheduleStart, zoneId);
+        }
+        SchedulingMonitor monitor = SchedulingMonitor.scheduling("objects", strategy, zoneId, tasks.size());
+        NavigableSet<WorkPeriod> periods = periodsFrom(scheduleStart);
+        OverwritingIterator overwriting = new OverwritingIterator(periods.iterator(), zoneId);
+        NavigableSet<WorkPeriod> overwritten = new TreeSet<>();
+        overwriting.forEachRemaining(overwritten::add);
+        monitor.overwritten(overwriting.periodsDrawn, overwriting.periodsSplit, overwriting.eventsConsumed);
+        ArrayList<WorkPeriod> overwrittenPeriods = new ArrayList<>(overwritten);
+        List<InfeasibleTask> infeasible = strategy.populate(overwrittenPeriods, tasks, scheduleStart, zoneId);
+        monitor.populated(overwrittenPeriods);
+        Schedule schedule = new Schedule(zoneId, scheduleStart, overwrittenPeriods, eventsOver(periods, zoneId), infeasible);
+        monitor.finished(schedule);
+        return schedule;
+    }
+
+    // With the greedy strategy, draws work periods from the generator one at a time, overwriting and
+    // populating each before asking for the next, and stops as soon as every task part is placed. The
+    // Schedule holds only the periods drawn; it is unsuccessful if the horizon is reached first. Other
+    // strategies need to see every period, so are given all those up to the horizon.
+    private Schedule createGeneratedSchedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        SchedulingMonitor monitor = SchedulingMonitor.scheduling("generated", strategy, zoneId, tasks.size());
+        OverwritingIterator periods = new OverwritingIterator(generatedWorkPeriods(scheduleStart).iterator(), zoneId);
+        List<WorkPeriod> populatedPeriods = new ArrayList<>();
+        List<InfeasibleTask> infeasible;
+        if (strategy != SchedulingStrategy.greedy()) {
+            periods.forEachRemaining(populatedPeriods::add);
+            infeasible = strategy.populate(populatedPeriods, tasks, scheduleStart, zoneId);
+        } else {
+            Deque<TaskPart> taskParts = GreedyStrategy.wholeParts(tasks);
+            while (!taskParts.isEmpty() && periods.hasNext()) {
+                WorkPeriod p = periods.next();
+                p.populateTaskPartList(taskParts, scheduleStart, zoneId);
+                populatedPeriods.add(p);
+            }
+            infeasible = GreedyStrategy.unplaced(taskParts);
+        }
+        monitor.overwritten(periods.periodsDrawn, periods.periodsSplit, periods.eventsConsumed);
+        monitor.populated(populatedPeriods);
+        Schedule schedule = new Schedule(zoneId, scheduleStart, populatedPeriods, eventsOver(populatedPeriods, zoneId), infeasible);
+        monitor.finished(schedule);
+        return schedule;
+    }
+
+    private Stream<WorkPeriod> generatedWorkPeriods(LocalDateTime scheduleStart) {
+        LocalDateTime horizonEnd = scheduleStart.plus(horizon);
+        return workPeriodGenerator.apply(scheduleStart.toLocalDate())
+                .takeWhile(p -> p.getStartTime().isBefore(horizonEnd));
+    }
+
+    // The work periods the columnar kernel schedules over. It needs them all up front, so a generator is
+    // drawn on for the whole horizon.
+    private NavigableSet<WorkPeriod> timelineWorkPeriods(LocalDateTime scheduleStart) {
+        return workPeriodGenerator == null
+                ? periodsFrom(scheduleStart)
+                : generatedWorkPeriods(scheduleStart).collect(toCollection(TreeSet::new));
+    }
+
+    // The calendar's work periods a schedule from scheduleStart covers: all of them, or in a rolling window,
+    // a view of those from the one that ends after scheduleStart on
+    private NavigableSet<WorkPeriod> periodsFrom(LocalDateTime scheduleStart) {
+        return retention == null ? workPeriods : periodsEndingAfter(scheduleStart);
+    }
+
+    // a view of the work periods from the one that ends after scheduleStart on
+    private NavigableSet<WorkPeriod> periodsEndingAfter(LocalDateTime scheduleStart) {
+        WorkPeriod probe = WorkPeriod.of(scheduleStart, scheduleStart);
+        WorkPeriod current = workPeriods.floor(probe);
+        return current != null && current.getEndTime().isAfter(scheduleStart)
+                ? workPeriods.tailSet(current, true)
+                : workPeriods.tailSet(probe, false);
+    }
+
+    // The time the calendar leaves free from scheduleStart on, as new empty periods in start order: its work
+    // periods that end after scheduleStart, or those the generator supplies up to the horizon, with the events
+    // taken out. For TeamScheduler, which fills them with a backlog shared with other calendars.
+    List<WorkPeriod> freePeriods(LocalDateTime scheduleStart, ZoneId zoneId) {
+        Iterator<WorkPeriod> source = workPeriodGenerator == null
+                ? periodsEndingAfter(scheduleStart).iterator()
+                : generatedWorkPeriods(scheduleStart).iterator();
+        List<WorkPeriod> free = new ArrayList<>();
+        new OverwritingIterator(source, zoneId).forEachRemaining(free::add);
+        return free;
+    }
+
+    public Schedule createSchedule(LocalDate testDate, ZoneId zoneId) {
+        return createSchedule(testDate.atStartOfDay(), zoneId);
+    }
+
+    // Produces the same Schedule as createSchedule, using the allocation-light columnar kernel in Timeline.
+    // Suited to large calendars; works to the second rather than the nanosecond. The kernel is greedy, so
+    // with any other strategy this is createSchedule.
+    public Schedule createTimelineSchedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        compactIfDue();
+        return timelineSchedule(scheduleStart, zoneId);
+    }
+
+    // createTimelineSchedule without compacting first, for a calendar that may be shared with other threads
+    Schedule timelineSchedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        if (strategy != SchedulingStrategy.greedy()) {
+            return schedule(scheduleStart, zoneId);
+        }
+        NavigableSet<WorkPeriod> periods = timelineWorkPeriods(scheduleStart);
+        return Timeline.createSchedule(periods, eventsOver(periods, zoneId), tasks, scheduleStart, zoneId);
+    }
+
+    // Produces the same Schedule as createTimelineSchedule, but keeps the state it was computed from. As long
+    // as the calendar only has events added and tasks appended in between, a later call with the same start
+    // and zone recomputes only the periods from the first one those changes can affect. Any other change,
+    // or a different start or zone, makes it schedule from scratch. With a strategy other than the greedy
+    // one, it always does.
+    public Schedule reschedule(LocalDateTime scheduleStart, ZoneId zoneId) {
+        compactIfDue();
+        if (strategy != SchedulingStrategy.greedy()) {
+            return schedule(scheduleStart, zoneId);
+        }
+        if (timeline == null || timelineRevision != revision || !timeline.isFor(scheduleStart, zoneId)) {
+            NavigableSet<WorkPeriod> periods = timelineWorkPeriods(scheduleStart);
+            timelineEvents = eventsOver(periods, zoneId);
+            timelineSharesEvents = recurringEvents.isEmpty() || periods.isEmpty();
+            timelineEventsFloor = retention == null || periods.isEmpty() ? null
+                    : earliestNear(Instant.ofEpochSecond(ZoneOffsetCache.of(zoneId).toEpochSecond(periods.first().getStartTime())));
+            timeline = new Timeline(periods, timelineEvents, tasks, scheduleStart, zoneId);
+            timelineRevision = revision;
+        }
+        return timeline.schedule();
+    }
+
+    long getRevision() {
+        return revision;
+    }
+
+    NavigableSet<WorkPeriod> getWorkPeriods() {
+        return workPeriods;
+    }
+
+    NavigableSet<Event> getEvents() {
+        return events;
+    }
+
+    List<Task> getTasks() {
+        return tasks;
+    }
+
+    List<RecurringEvent> getRecurringEvents() {
+        return recurringEvents;
+    }
+
+    boolean hasWorkPeriodGenerator() {
+        return workPeriodGenerator != null;
+    }
+
+    // The events a schedule over the given periods, in start order, shows and is made around: the calendar's
+    // own set if there are no recurring events, otherwise a copy of it with every occurrence that overlaps
+    // the periods. In a rolling window, the events that end before the first period are left out.
+    NavigableSet<Event> eventsOver(Collection<WorkPeriod> periods, ZoneId zone) {
+        if (periods.isEmpty()) {
+            return events;
+        }
+        ZoneOffsetCache offsets = ZoneOffsetCache.of(zone);
+        NavigableSet<Event> own = retention == null
+                ? events
+                : eventsNear(Instant.ofEpochSecond(offsets.toEpochSecond(periods.iterator().next().getStartTime())));
+        if (recurringEvents.isEmpty()) {
+            return own;
+        }
+        long from = Long.MAX_VALUE;
+        long to = Long.MIN_VALUE;
+        for (WorkPeriod p : periods) {
+            from = Math.min(from, offsets.toEpochSecond(p.getStartTime()));
+            to = Math.max(to, offsets.toEpochSecond(p.getEndTime()));
+        }
+        NavigableSet<Event> result = new TreeSet<>(own);
+        for (RecurringEvent r : recurringEvents) {
+            Iterator<Event> occurrences = r.occurrencesFrom(Instant.ofEpochSecond(from));
+            for (Event e = occurrences.next(); e.getStartTime().toEpochSecond() < to; e = occurrences.next()) {
+                result.add(e);      // not if an event already starts at the same instant
+            }
+        }
+        return result;
+    }
+
+    // The calendar's events merged in start order with the occurrences of its recurring events that end after
+    // the given instant; an occurrence is dropped if something earlier in the merge, the calendar's own events
+    // first and then the rules in the order added, starts at the same instant. Occurrences are created only
+    // as the merge reaches them, so it holds one per rule at a time.
+    private Iterator<Event> eventsFrom(Instant from) {
+        if (recurringEvents.isEmpty()) {
+            return eventsNear(from).iterator();
+        }
+        List<Iterator<Event>> sources = new ArrayList<>();
+        sources.add(eventsNear(from).iterator());
+        for (RecurringEvent r : recurringEvents) {
+            sources.add(r.occurrencesFrom(from));
+        }
+        return new MergingIterator(sources);
+    }
+
+    // A view of the calendar's events without those that start too long before the instant to run past it,
+    // or to displace an occurrence that does. The merge with the work periods only needs the events that end
+    // after the first period starts, so it need not walk the calendar's history.
+    private NavigableSet<Event> eventsNear(Instant from) {
+        return events.tailSet(earliestNear(from), true);
+    }
+
+    // an empty event at the earliest an event can start and still run past the instant, to compare others with
+    private Event earliestNear(Instant from) {
+        ZonedDateTime earliest = from.minus(longestEvent).atZone(ZoneOffset.UTC);
+        return Event.of(earliest, earliest, "");
+    }
+
+    private static class MergingIterator implements Iterator<Event> {
+
+        private final List<Iterator<Event>> sources;
+        // the next event of each source that has one, by start instant and then source
+        private final PriorityQueue<int[]> heads;
+        private final Event[] nextOf;
+        private Event last;
+
+        MergingIterator(List<Iterator<Event>> sources) {
+            this.sources = sources;
+            nextOf = new Event[sources.size()];
+            heads = new PriorityQueue<>((a, b) -> {
+                int byStart = nextOf[a[0]].compareTo(nextOf[b[0]]);
+                return byStart != 0 ? byStart : Integer.compare(a[0], b[0]);
+            });
+            for (int i = 0; i < sources.size(); i++) {
+                pull(i);
+            }
+            skipSameStart();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Event next() {
+            if (heads.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            int source = heads.poll()[0];
+            last = nextOf[source];
+            pull(source);
+            skipSameStart();
+            return last;
+        }
+
+        private void pull(int source) {
+            Iterator<Event> it = sources.get(source);
+            nextOf[source] = nextOrNull(it);
+            if (nextOf[source] != null) {
+                heads.add(new int[]{source});
+            }
+        }
+
+        private void skipSameStart() {
+            while (last != null && !heads.isEmpty() && nextOf[heads.peek()[0]].compareTo(last) == 0) {
+                pull(heads.poll()[0]);
+            }
+        }
+    }
+
+    NavigableSet<WorkPeriod> overwritePeriodsWithEvents(ZoneId zone) {
+        NavigableSet<WorkPeriod> overwrittenPeriods = new TreeSet<>();
+        new OverwritingIterator(workPeriods.iterator(), zone).forEachRemaining(overwrittenPeriods::add);
+        return overwrittenPeriods;
+    }
+
+    // Merges work periods, in start order, with the calendar's events, yielding what is left of the periods
+    // once the events are taken out. Periods are only drawn from the source as they are needed, and a period
+    // yielded whole is a copy, so that populating it leaves the source untouched.
+    private class OverwritingIterator implements Iterator<WorkPeriod> {
+
+        private final Iterator<WorkPeriod> periods;
+        private final ZoneId zone;
+        private final Iterator<Event> events;
+
+        private WorkPeriod period;
+        private boolean periodIsSource;     // period is still the one drawn from the source
+        // the current event, projected into the schedule zone once rather than at each step of the merge;
+        // eventStart is null once the events run out
+        private LocalDateTime eventStart;
+        private LocalDateTime eventEnd;
+        private WorkPeriod next;
+        // what the merge has done so far, for SchedulingMonitor
+        int periodsDrawn;
+        int periodsSplit;
+        int eventsConsumed;
+
+        OverwritingIterator(Iterator<WorkPeriod> periods, ZoneId zone) {
+            this.periods = periods;
+            this.zone = zone;
+            nextPeriod();
+            // recurring events are only expanded from the first period on
+            events = period == null
+                    ? Collections.emptyIterator()
+                    : eventsFrom(Instant.ofEpochSecond(ZoneOffsetCache.of(zone).toEpochSecond(period.getStartTime())));
+            nextEvent();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public WorkPeriod next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            WorkPeriod result = next;
+            next = null;
+            return result;
+        }
+
+        private WorkPeriod advance() {
+            while (period != null && eventStart != null) {
+                if (!period.getEndTime().isAfter(eventStart)) {
+                    // non-overlapping, period first
+                    return takePeriod();
+                } else if (!period.getStartTime().isBefore(eventEnd)) {
+                    // non-overlapping, event first
+                    nextEvent();
+                    eventsConsumed++;
+                } else if (period.getStartTime().isBefore(eventStart)) {
+                    // overlapping, period starts first
+                    List<WorkPeriod> split = period.split(eventStart, zone);
+                    period = split.get(1);
+                    periodIsSource = false;
+                    periodsSplit++;
+                    return split.get(0);
+                } else if (period.getEndTime().isAfter(eventEnd)) {
+                    // overlapping, event starts first or at same time
+                    period = period.split(eventEnd, zone).get(1);
+                    periodIsSource = false;
+                    periodsSplit++;
+                    nextEvent();
+                    eventsConsumed++;
+                } else {
+                    // event encloses period
+                    nextPeriod();
+                }
+            }
+            // no events left to take out
+            return period == null ? null : takePeriod();
+        }
+
+        private WorkPeriod takePeriod() {
+            WorkPeriod result = periodIsSource ? period.copy() : period;
+            nextPeriod();
+            return result;
+        }
+
+        private void nextPeriod() {
+            period = nextOrNull(periods);
+            periodIsSource = true;
+            if (period != null) periodsDrawn++;
+        }
+
+        private void nextEvent() {
+            Event e = nextOrNull(events);
+            eventStart = e == null ? null : e.getLocalStartDateTime(zone);
+            eventEnd = e == null ? null : e.getLocalEndDateTime(zone);
+        }
+    }
+
+    private static <E> E nextOrNull(Iterator<E> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    // Has the calendar draw its work periods lazily from the generator, which is given the date of the schedule
+    // start and must supply periods in start order, without overlaps. Scheduling draws on it only until all
+    // tasks are placed, and never beyond the horizon after the schedule start. Replaces adding work periods
+    // one by one.
+    public SchedulerCalendar setWorkPeriodGenerator(Function<LocalDate, Stream<WorkPeriod>> generator, Period horizon) {
+        if (!workPeriods.isEmpty()) {
+            throw new IllegalStateException("Calendar already has work periods");
+        }
+        workPeriodGenerator = generator;
+        this.horizon = horizon;
+        revision++;
+        return this;
+    }
+
+    // Keeps the calendar to a rolling window: periods and events that ended more than retention before the
+    // clock's time are dropped by compact(), which scheduling calls itself once the oldest of them has, and
+    // schedules start from the period the schedule start falls in rather than the first one. Work periods,
+    // which are in local time, are compared in the clock's zone. Each compaction hands what it drops, in start
+    // order, to archive.
+    public SchedulerCalendar setRollingWindow(Duration retention, Clock clock, BiConsumer<List<WorkPeriod>, List<Event>> archive) {
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("Retention cannot be negative: " + retention);
+        }
+        this.retention = retention;
+        this.clock = clock;
+        this.archive = archive;
+        revision++;
+        return this;
+    }
+
+    public SchedulerCalendar setRollingWindow(Duration retention, Clock clock) {
+        return setRollingWindow(retention, clock, (periods, events) -> { });
+    }
+
+    // Drops the periods and events that have passed out of the rolling window; returns how many
+    public int compact() {
+        if (retention == null) {
+            throw new IllegalStateException("Calendar has no rolling window");
+        }
+        Instant cutoff = clock.instant().minus(retention);
+        LocalDateTime localCutoff = LocalDateTime.ofInstant(cutoff, clock.getZone());
+        List<WorkPeriod> expiredPeriods = new ArrayList<>();
+        for (Iterator<WorkPeriod> it = workPeriods.iterator(); it.hasNext(); ) {
+            WorkPeriod p = it.next();
+            if (p.getEndTime().isAfter(localCutoff)) {
+                break;      // periods do not overlap, so every later one ends later
+            }
+            expiredPeriods.add(p);
+            it.remove();
+        }
+        // an event can outlast others that start after it, so every one starting before the cutoff is looked at
+        List<Event> expiredEvents = new ArrayList<>();
+        ZonedDateTime zonedCutoff = cutoff.atZone(ZoneOffset.UTC);
+        for (Iterator<Event> it = events.headSet(Event.of(zonedCutoff, zonedCutoff, ""), false).iterator(); it.hasNext(); ) {
+            Event e = it.next();
+            if (!e.getEndTime().toInstant().isAfter(cutoff)) {
+                expiredEvents.add(e);
+                it.remove();
+            }
+        }
+        int expired = expiredPeriods.size() + expiredEvents.size();
+        if (expired > 0) {
+            revision++;
+            archive.accept(expiredPeriods, expiredEvents);
+        }
+        return expired;
+    }
+
+    // whether the oldest period or event has passed out of the rolling window
+    boolean isCompactionDue() {
+        if (retention == null) {
+            return false;
+        }
+        Instant cutoff = clock.instant().minus(retention);
+        return !workPeriods.isEmpty() && !workPeriods.first().getEndTime().isAfter(LocalDateTime.ofInstant(cutoff, clock.getZone()))
+                || !events.isEmpty() && !events.first().getEndTime().toInstant().isAfter(cutoff);
+    }
+
+    void compactIfDue() {
+        if (isCompactionDue()) {
+            compact();
+        }
+    }
+
+    public SchedulerCalendar setSchedulingStrategy(SchedulingStrategy strategy) {
+        this.strategy = strategy;
+        revision++;
+        return this;
+    }
+
+    SchedulingStrategy getSchedulingStrategy() {
+        return strategy;
+    }
+
+    public SchedulerCalendar addWorkPeriod(WorkPeriod p) {
+        if (workPeriodGenerator != null) {
+            throw new IllegalStateException("Calendar generates its work periods");
+        }
+        WorkPeriod preceding = workPeriods.floor(p);
+        WorkPeriod following = workPeriods.ceiling(p);
+        if (preceding != null && !preceding.getEndTime().isBefore(p.getStartTime())) {
+            throw new IllegalArgumentException("Work Periods cannot overlap: " + preceding + "," + p);
+        } else if (following != null && !following.getStartTime().isAfter(p.getEndTime())) {
+            throw new IllegalArgumentException("Work Periods cannot overlap: " + p + "," + following);
+        }
+        workPeriods.add(p);
+        revision++;
+        return this;
+    }
+
+    public SchedulerCalendar addWorkPeriods(List<WorkPeriod> periods) {
+        for (WorkPeriod wp : periods) {
+            addWorkPeriod(wp);
+        }
+        return this;
+    }
+
+    // Adds many work periods and events at once, in time linear in the calendar's size and what is loaded if that
+    // is already in start order, and with a sort of what is loaded if not. Anything that addWorkPeriod would
+    // reject, or addEvent would leave out, is not added but listed in the report; what was already in the
+    // calendar always stays.
+    public LoadReport load(List<WorkPeriod> periods, List<Event> events) {
+        if (workPeriodGenerator != null && !periods.isEmpty()) {
+            throw new IllegalStateException("Calendar generates its work periods");
+        }
+        List<LoadReport.Conflict<WorkPeriod>> periodConflicts = new ArrayList<>();
+        List<LoadReport.Conflict<Event>> eventConflicts = new ArrayList<>();
+        int periodsAdded = loadWorkPeriods(inOrder(periods, Comparator.naturalOrder()), periodConflicts);
+        int eventsAdded = loadEvents(inOrder(events, BY_START_INSTANT), eventConflicts);
+        if (periodsAdded + eventsAdded > 0) {
+            revision++;
+        }
+        return new LoadReport(periodsAdded, eventsAdded, periodConflicts, eventConflicts);
+    }
+
+    // the natural order of events, without creating an Instant for each comparison
+    private static final Comparator<Event> BY_START_INSTANT = Comparator
+            .comparingLong((Event e) -> e.getStartTime().toEpochSecond())
+            .thenComparingInt(e -> e.getStartTime().getNano());
+
+    // the items as they are if already in order, otherwise a sorted copy; the sort is stable
+    private static <E> List<E> inOrder(List<E> items, Comparator<? super E> order) {
+        for (int i = 1; i < items.size(); i++) {
+            if (order.compare(items.get(i - 1), items.get(i)) > 0) {
+                List<E> sorted = new ArrayList<>(items);
+                sorted.sort(order);
+                return sorted;
+            }
+        }
+        return items;
+    }
+
+    // Merges the periods, in start order, with the calendar's, checking each only against the one before it
+    // and the calendar's next one, and rebuilds the set from the merged list
+    private int loadWorkPeriods(List<WorkPeriod> incoming, List<LoadReport.Conflict<WorkPeriod>> conflicts) {
+        if (incoming.isEmpty()) {
+            return 0;
+        }
+        if (isSmallBatch(incoming.size(), workPeriods.size())) {
+            return insertWorkPeriods(incoming, conflicts);
+        }
+        List<WorkPeriod> merged = new ArrayList<>(workPeriods.size() + incoming.size());
+        Iterator<WorkPeriod> existing = workPeriods.iterator();
+        WorkPeriod nextExisting = nextOrNull(existing);
+        WorkPeriod last = null;
+        boolean lastExisting = false;
+        int added = 0;
+        for (WorkPeriod p : incoming) {
+            while (nextExisting != null && nextExisting.compareTo(p) <= 0) {
+                merged.add(nextExisting);
+                last = nextExisting;
+                lastExisting = true;
+                nextExisting = nextOrNull(existing);
+            }
+            if (last != null && !last.getEndTime().isBefore(p.getStartTime())) {
+                conflicts.add(new LoadReport.Conflict<>(p, last, lastExisting));
+            } else if (nextExisting != null && !nextExisting.getStartTime().isAfter(p.getEndTime())) {
+                conflicts.add(new LoadReport.Conflict<>(p, nextExisting, true));
+            } else {
+                merged.add(p);
+                last = p;
+                lastExisting = false;
+                added++;
+            }
+        }
+        if (added > 0) {
+            for (; nextExisting != null; nextExisting = nextOrNull(existing)) {
+                merged.add(nextExisting);
+            }
+            workPeriods.clear();
+            workPeriods.addAll(new SortedListView<>(merged));
+        }
+        return added;
+    }
+
+    // A batch is inserted item by item, rather than merged with the whole set, if that is cheaper: if it has
+    // fewer items than the set has divided by the depth of its tree. A calendar fed in batches, as
+    // CalendarImporter feeds it, then costs O(log n) an item however large it grows.
+    private static boolean isSmallBatch(int batchSize, int setSize) {
+        return (long) batchSize * (64 - Long.numberOfLeadingZeros(setSize)) < setSize;
+    }
+
+    // The same as the merge in loadWorkPeriods, with each period's neighbours found in the set: each period
+    // added goes into the set straight away, so the one before the next is found there, whichever it came from
+    private int insertWorkPeriods(List<WorkPeriod> incoming, List<LoadReport.Conflict<WorkPeriod>> conflicts) {
+        WorkPeriod lastAdded = null;
+        int added = 0;
+        for (WorkPeriod p : incoming) {
+            WorkPeriod last = workPeriods.floor(p);
+            WorkPeriod nextExisting = workPeriods.higher(p);
+            if (last != null && !last.getEndTime().isBefore(p.getStartTime())) {
+                conflicts.add(new LoadReport.Conflict<>(p, last, last != lastAdded));
+            } else if (nextExisting != null && !nextExisting.getStartTime().isAfter(p.getEndTime())) {
+                conflicts.add(new LoadReport.Conflict<>(p, nextExisting, true));
+            } else {
+                workPeriods.add(p);
+                lastAdded = p;
+                added++;
+            }
+        }
+        return added;
+    }
+
+    // As loadWorkPeriods, for events; only events starting at the same instant conflict
+    private int loadEvents(List<Event> incoming, List<LoadReport.Conflict<Event>> conflicts) {
+        if (incoming.isEmpty()) {
+            return 0;
+        }
+        if (isSmallBatch(incoming.size(), events.size())) {
+            return insertEvents(incoming, conflicts);
+        }
+        List<Event> merged = new ArrayList<>(events.size() + incoming.size());
+        Iterator<Event> existing = events.iterator();
+        Event nextExisting = nextOrNull(existing);
+        Event last = null;
+        int added = 0;
+        for (Event e : incoming) {
+            while (nextExisting != null && nextExisting.compareTo(e) < 0) {
+                merged.add(nextExisting);
+                nextExisting = nextOrNull(existing);
+            }
+            if (nextExisting != null && nextExisting.compareTo(e) == 0) {
+                conflicts.add(new LoadReport.Conflict<>(e, nextExisting, true));
+            } else if (last != null && last.compareTo(e) == 0) {
+                conflicts.add(new LoadReport.Conflict<>(e, last, false));
+            } else {
+                merged.add(e);
+                last = e;
+                noteDuration(e);
+                added++;
+            }
+        }
+        if (added > 0) {
+            for (; nextExisting != null; nextExisting = nextOrNull(existing)) {
+                merged.add(nextExisting);
+            }
+            events.clear();
+            events.addAll(new SortedListView<>(merged));
+        }
+        return added;
+    }
+
+    private int insertEvents(List<Event> incoming, List<LoadReport.Conflict<Event>> conflicts) {
+        Event lastAdded = null;
+        int added = 0;
+        for (Event e : incoming) {
+            Event same = events.ceiling(e);
+            if (same != null && same.compareTo(e) == 0) {
+                conflicts.add(new LoadReport.Conflict<>(e, same, same != lastAdded));
+            } else {
+                events.add(e);
+                lastAdded = e;
+                noteDuration(e);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public SchedulerCalendar addTask(String description, int hours, int minutes) {
+        addTask(new Task(hours, minutes, description));
+        return this;
+    }
+
+    public SchedulerCalendar addTask(Task task) {
+        tasks.add(task);
+        if (isTimelineCurrent()) {
+            timeline.addTask(task);
+            timelineRevision++;
+        }
+        revision++;
+        return this;
+    }
+
+    // Appends the tasks in order, as addTask would one by one, as a single change to the calendar
+    public SchedulerCalendar addTasks(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return this;
+        }
+        this.tasks.addAll(tasks);
+        if (isTimelineCurrent()) {
+            for (Task t : tasks) {
+                timeline.addTask(t);
+            }
+            timelineRevision++;
+        }
+        revision++;
+        return this;
+    }
+
+    public SchedulerCalendar addEvent(Event e) {
+        // events with the same start instant as an existing one are not added
+        if (events.add(e)) {
+            boolean longest = noteDuration(e);
+            // in a rolling window, the longest event yet moves back where the window's events begin, so the
+            // timeline is rebuilt; one that starts before them changes nothing
+            if (isTimelineCurrent() && !(longest && retention != null)) {
+                if (timelineEventsFloor != null && e.compareTo(timelineEventsFloor) < 0) {
+                    timelineRevision++;
+                } else if (timelineSharesEvents || timelineEvents.add(e)) {
+                    // the timeline's events are a separate set if there are recurring events; an event that
+                    // displaces an occurrence there changes more than the timeline can follow, so it is rebuilt
+                    timeline.addEvent(e);
+                    timelineRevision++;
+                }
+            }
+            revision++;
+        }
+        return this;
+    }
+
+    // Adds a rule for an event that recurs. Its occurrences are not stored; each schedule expands them over
+    // its own work periods. An occurrence that starts at the same instant as one of the calendar's events, or
+    // of a rule added earlier, is left out.
+    public SchedulerCalendar addRecurringEvent(RecurringEvent r) {
+        recurringEvents.add(r);
+        noteDuration(r.getDuration());
+        revision++;
+        return this;
+    }
+
+    // returns true if e lasts longer than any event or occurrence before it
+    private boolean noteDuration(Event e) {
+        return noteDuration(Duration.between(e.getStartTime(), e.getEndTime()));
+    }
+
+    private boolean noteDuration(Duration d) {
+        if (d.compareTo(longestEvent) <= 0) {
+            return false;
+        }
+        longestEvent = d;
+        return true;
+    }
+
+    private boolean isTimelineCurrent() {
+        return timeline != null && timelineRevision == revision;
+    }
+
+    public SchedulerCalendar addEvent(ZonedDateTime eventDateTime, Duration duration, String description) {
+        addEvent(Event.of(eventDateTime, eventDateTime.plus(duration), description));
+        return this;
+    }
+}
\ No newline at end of file
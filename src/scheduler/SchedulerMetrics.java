@@ -0,0 +1,158 @@
+package scheduler;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and timers for scheduling and rendering, tagged by the zone scheduled in and the size of the
+// calendar. Recording is off until setEnabled(true), and costs a flag check while it is. The same figures
+// are emitted as JDK Flight Recorder events (category "Scheduler") whenever a recording enables them,
+// whether or not these metrics are on.
+public final class SchedulerMetrics {
+
+    // timers, in nanoseconds
+    public static final String SCHEDULE_TIME = "schedule.time";
+    public static final String RENDER_TIME = "render.time";
+    // counters, per schedule or rendering
+    public static final String PERIODS_SPLIT = "schedule.periodsSplit";
+    public static final String EVENTS_CONSUMED = "schedule.eventsConsumed";
+    public static final String PARTS_PLACED = "schedule.partsPlaced";
+    public static final String PARTS_SPLIT = "schedule.partsSplit";
+    public static final String MIDNIGHT_SPLITS = "schedule.midnightSplits";
+    public static final String RENDER_MIDNIGHT_SPLITS = "render.midnightSplits";
+
+    private static volatile boolean enabled;
+    private static final Map<Key, Recorder> recorders = new ConcurrentHashMap<>();
+
+    private SchedulerMetrics() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        SchedulerMetrics.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void reset() {
+        recorders.clear();
+    }
+
+    // Every metric recorded since the last reset, by name, zone and size
+    public static List<Metric> snapshot() {
+        List<Metric> result = new ArrayList<>(recorders.size());
+        recorders.forEach((key, recorder) -> result.add(recorder.read(key)));
+        result.sort(Comparator.comparing(Metric::getName).thenComparing(Metric::getZone).thenComparingInt(Metric::getSize));
+        return result;
+    }
+
+    static void record(String name, ZoneId zone, int calendarSize, long value) {
+        recorders.computeIfAbsent(new Key(name, zone.getId(), sizeClass(calendarSize)), k -> new Recorder()).record(value);
+    }
+
+    // Calendars are tagged with their size rounded up to a power of two, so that one tag covers calendars
+    // that cost about the same to schedule
+    static int sizeClass(int calendarSize) {
+        return calendarSize <= 1 ? 1 : Integer.highestOneBit(calendarSize - 1) << 1;
+    }
+
+    // What was recorded under one name and tags: how many times, the sum and the largest value
+    public static final class Metric {
+
+        private final String name;
+        private final String zone;
+        private final int size;
+        private final long count;
+        private final long total;
+        private final long max;
+
+        Metric(String name, String zone, int size, long count, long total, long max) {
+            this.name = name;
+            this.zone = zone;
+            this.size = size;
+            this.count = count;
+            this.total = total;
+            this.max = max;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getZone() {
+            return zone;
+        }
+
+        // the calendar size, rounded up to a power of two
+        public int getSize() {
+            return size;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return name + "{zone=" + zone + ",size=" + size + "} count=" + count + " total=" + total + " max=" + max;
+        }
+    }
+
+    private static final class Key {
+
+        private final String name;
+        private final String zone;
+        private final int size;
+
+        Key(String name, String zone, int size) {
+            this.name = name;
+            this.zone = zone;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return size == other.size && name.equals(other.name) && zone.equals(other.zone);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, zone, size);
+        }
+    }
+
+    private static final class Recorder {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        void record(long value) {
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+        }
+
+        Metric read(Key key) {
+            return new Metric(key.name, key.zone, key.size, count.sum(), total.sum(), max.get());
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package scheduler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Named calendars served over HTTP, on the JDK's built-in server. Each calendar is a ConcurrentSchedulerCalendar
+// with a ScheduleCache in front, so schedules are created while other requests change it, and one asked for
+// again before the calendar changes is not created twice. Each request is handled on a virtual thread of its
+// own, or, to compare against, on a fixed pool of platform threads.
+//
+//   PUT    /calendars/{name}[?workingDays=&from=&strategy=]    creates the calendar if there is none, then
+//                                                                adds the standard work periods for that many
+//                                                                working days and sets the strategy, if given
+//   DELETE /calendars/{name}
+//   POST   /calendars/{name}/work-periods?start=&end=
+//   POST   /calendars/{name}/events?start=&zone=&duration=[&description=]
+//   POST   /calendars/{name}/tasks?duration=[&description=]
+//   GET    /calendars/{name}/schedule?start=&zone=[&format=json]
+//   GET    /calendars/{name}/free-slot?start=&zone=&after=&duration=
+//
+// Parameters are taken from the query string. Times are ISO local date-times, in the zone given where there is
+// one; durations are ISO durations such as PT1H30M; strategy is greedy or edf. The free slot is the first one of
+// the given length in the schedule from start, no earlier than after, or 204 if there is none. A bad request is
+// answered with 400 and the reason, an unknown calendar with 404.
+//
+// Run with -Dsun.net.httpserver.nodelay=true, as main and the Gradle serve task do. Without TCP_NODELAY, a
+// response's body waits behind its headers for the client's delayed ACK, about 40 ms on Linux.
+public class SchedulerService implements AutoCloseable {
+
+    private static final String CALENDARS = "/calendars/";
+    private static final int CACHE_CAPACITY = 64;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, ServedCalendar> calendars = new ConcurrentHashMap<>();
+
+    // Handles each request on a virtual thread of its own
+    public SchedulerService(InetSocketAddress address) throws IOException {
+        this(address, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // Handles requests on a fixed pool of the given number of platform threads
+    public SchedulerService(InetSocketAddress address, int threads) throws IOException {
+        this(address, fixedThreadPool(threads));
+    }
+
+    private SchedulerService(InetSocketAddress address, ExecutorService executor) throws IOException {
+        server = HttpServer.create(address, 0);
+        this.executor = executor;
+        server.setExecutor(executor);
+        server.createContext(CALENDARS, this::handle);
+    }
+
+    private static ExecutorService fixedThreadPool(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Service needs at least one thread: " + threads);
+        }
+        return Executors.newFixedThreadPool(threads);
+    }
+
+    public SchedulerService start() {
+        server.start();
+        return this;
+    }
+
+    // the port listened on, which is chosen by the system if the address had port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops taking requests, and lets those being handled finish
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    // Serves on the given port, 8080 by default, on virtual threads, or on a pool of the given number of threads
+    public static void main(String[] args) throws IOException {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+        InetSocketAddress address = new InetSocketAddress(port);
+        SchedulerService service = (threads == 0 ? new SchedulerService(address) : new SchedulerService(address, threads)).start();
+        System.out.println("Scheduler service on port " + service.getPort() + " with "
+                + (threads == 0 ? "a virtual thread a request" : threads + " threads"));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            body.transferTo(OutputStream.nullOutputStream());
+            Response response;
+            try {
+                response = respond(exchange.getRequestMethod(), exchange.getRequestURI().getRawPath(),
+                        parameters(exchange.getRequestURI().getRawQuery()));
+            } catch (IllegalArgumentException | IllegalStateException | DateTimeException e) {
+                response = Response.text(400, e.getMessage());
+            }
+            send(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Response respond(String method, String path, Map<String, String> parameters) {
+        String[] segments = path.substring(CALENDARS.length()).split("/", -1);
+        String name = decode(segments[0]);
+        if (name.isEmpty() || segments.length > 2) {
+            return Response.text(404, "No such resource: " + path);
+        }
+        String resource = segments.length == 2 ? segments[1] : "";
+        if (resource.isEmpty()) {
+            switch (method) {
+                case "PUT":
+                    return putCalendar(name, parameters);
+                case "DELETE":
+                    return calendars.remove(name) == null ? unknown(name) : Response.text(200, "Deleted " + name);
+                default:
+                    return Response.methodNotAllowed("PUT, DELETE");
+            }
+        }
+        ServedCalendar served = calendars.get(name);
+        switch (resource) {
+            case "work-periods":
+                if (!method.equals("POST")) return Response.methodNotAllowed("POST");
+                if (served == null) return unknown(name);
+                served.calendar.addWorkPeriod(WorkPeriod.of(localDateTime(parameters, "start"), localDateTime(parameters, "end")));
+                return Response.text(201, "Added work period");
+            case "events":
+                if (!method.equals("POST")) return Response.methodNotAllowed("POST");
+                if (served == null) return unknown(name);
+                ZonedDateTime eventStart = ZonedDateTime.of(localDateTime(parameters, "start"), zone(parameters));
+                served.calendar.addEvent(Event.of(eventStart, duration(parameters, "duration"), parameters.getOrDefault("description", "")));
+                return Response.text(201, "Added event");
+            case "tasks":
+                if (!method.equals("POST")) return Response.methodNotAllowed("POST");
+                if (served == null) return unknown(name);
+                served.calendar.addTask(new Task(duration(parameters, "duration"), parameters.getOrDefault("description", "")));
+                return Response.text(201, "Added task");
+            case "schedule":
+                if (!method.equals("GET")) return Response.methodNotAllowed("GET");
+                if (served == null) return unknown(name);
+                return schedule(served, parameters);
+            case "free-slot":
+                if (!method.equals("GET")) return Response.methodNotAllowed("GET");
+                if (served == null) return unknown(name);
+                return freeSlot(served, parameters);
+            default:
+                return Response.text(404, "No such resource: " + path);
+        }
+    }
+
+    private Response putCalendar(String name, Map<String, String> parameters) {
+        boolean created = false;
+        ServedCalendar served = calendars.get(name);
+        if (served == null) {
+            ServedCalendar fresh = new ServedCalendar();
+            served = calendars.putIfAbsent(name, fresh);
+            if (served == null) {
+                served = fresh;
+                created = true;
+            }
+        }
+        String workingDays = parameters.get("workingDays");
+        String strategy = parameters.get("strategy");
+        if (workingDays != null || strategy != null) {
+            List<WorkPeriod> periods = workingDays == null ? List.of()
+                    : WorkPeriods.generateWorkPeriods(LocalDate.parse(required(parameters, "from")), Integer.parseInt(workingDays));
+            SchedulingStrategy chosen = strategy == null ? null : strategy(strategy);
+            served.calendar.update(c -> {
+                c.addWorkPeriods(periods);
+                if (chosen != null) {
+                    c.setSchedulingStrategy(chosen);
+                }
+            });
+        }
+        return Response.text(created ? 201 : 200, (created ? "Created " : "Updated ") + name);
+    }
+
+    private static Response schedule(ServedCalendar served, Map<String, String> parameters) {
+        Schedule schedule = served.cache.createSchedule(localDateTime(parameters, "start"), zone(parameters));
+        String format = parameters.getOrDefault("format", "text");
+        switch (format) {
+            case "text":
+                return Response.text(200, schedule.toString());
+            case "json":
+                return new Response(200, "application/json", appendJson(new StringBuilder(), schedule).toString());
+            default:
+                throw new IllegalArgumentException("Unknown format: " + format);
+        }
+    }
+
+    private static Response freeSlot(ServedCalendar served, Map<String, String> parameters) {
+        ZoneId zone = zone(parameters);
+        Schedule schedule = served.cache.createSchedule(localDateTime(parameters, "start"), zone);
+        Optional<ZonedDateTime> slot = schedule.freeBusyIndex()
+                .nextFreeSlot(ZonedDateTime.of(localDateTime(parameters, "after"), zone), duration(parameters, "duration"));
+        return slot.map(s -> Response.text(200, s.toString())).orElseGet(() -> Response.text(204, ""));
+    }
+
+    private static Response unknown(String name) {
+        return Response.text(404, "No calendar called " + name);
+    }
+
+    private static SchedulingStrategy strategy(String name) {
+        switch (name) {
+            case "greedy":
+                return SchedulingStrategy.greedy();
+            case "edf":
+                return SchedulingStrategy.earliestDeadlineFirst();
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+        }
+    }
+
+    // The schedule as one JSON object: its periods, split at midnight, with their task parts, the events and
+    // the tasks that could not be scheduled. Local times are in the schedule's zone.
+    static StringBuilder appendJson(StringBuilder sb, Schedule schedule) {
+        sb.append("{\"zone\":");
+        appendString(sb, schedule.getZoneId().getId());
+        sb.append(",\"start\":");
+        if (schedule.getScheduleStart() == null) {
+            sb.append("null");
+        } else {
+            appendString(sb, schedule.getScheduleStart().toString());
+        }
+        sb.append(",\"successful\":").append(schedule.isSuccessful()).append(",\"periods\":[");
+        String separator = "";
+        for (WorkPeriod p : schedule.getScheduledPeriods()) {
+            sb.append(separator).append("{\"start\":");
+            appendString(sb, p.getStartTime().toString()).append(",\"end\":");
+            appendString(sb, p.getEndTime().toString()).append(",\"parts\":[");
+            String partSeparator = "";
+            for (TaskPart tp : p.getTaskParts()) {
+                sb.append(partSeparator).append("{\"task\":");
+                appendString(sb, tp.getOwner().getDescription())
+                        .append(",\"part\":").append(tp.getPartSequenceNumber())
+                        .append(",\"of\":").append(tp.getScheduledTask().getPartCount())
+                        .append(",\"duration\":");
+                appendString(sb, tp.getDuration().toString()).append('}');
+                partSeparator = ",";
+            }
+            sb.append("]}");
+            separator = ",";
+        }
+        sb.append("],\"events\":[");
+        separator = "";
+        for (Event e : schedule.getEvents()) {
+            sb.append(separator).append("{\"start\":");
+            appendString(sb, e.getLocalStartDateTime(schedule.getZoneId()).toString()).append(",\"end\":");
+            appendString(sb, e.getLocalEndDateTime(schedule.getZoneId()).toString()).append(",\"description\":");
+            appendString(sb, e.getDescription()).append('}');
+            separator = ",";
+        }
+        sb.append("],\"infeasible\":[");
+        separator = "";
+        for (InfeasibleTask t : schedule.getInfeasibleTasks()) {
+            sb.append(separator).append("{\"task\":");
+            appendString(sb, t.getTask().getDescription()).append(",\"reason\":");
+            appendString(sb, t.getReason().name()).append(",\"scheduled\":");
+            appendString(sb, t.getScheduled().toString()).append('}');
+            separator = ",";
+        }
+        return sb.append("]}");
+    }
+
+    private static StringBuilder appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    private static Map<String, String> parameters(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals < 0) {
+                parameters.put(decode(pair), "");
+            } else {
+                parameters.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+            }
+        }
+        return parameters;
+    }
+
+    private static String decode(String s) {
+        return URLDecoder.decode(s, StandardCharsets.UTF_8);
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value;
+    }
+
+    private static LocalDateTime localDateTime(Map<String, String> parameters, String name) {
+        return LocalDateTime.parse(required(parameters, name));
+    }
+
+    private static Duration duration(Map<String, String> parameters, String name) {
+        return Duration.parse(required(parameters, name));
+    }
+
+    private static ZoneId zone(Map<String, String> parameters) {
+        return ZoneId.of(required(parameters, "zone"));
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", response.contentType + "; charset=utf-8");
+        if (response.allow != null) {
+            exchange.getResponseHeaders().set("Allow", response.allow);
+        }
+        // 204 must not have a body; -1 says so
+        exchange.sendResponseHeaders(response.status, response.status == 204 ? -1 : bytes.length);
+        if (response.status != 204) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static final class ServedCalendar {
+
+        private final ConcurrentSchedulerCalendar calendar = new ConcurrentSchedulerCalendar();
+        private final ScheduleCache cache = new ScheduleCache(calendar, CACHE_CAPACITY);
+    }
+
+    private static final class Response {
+
+        private final int status;
+        private final String contentType;
+        private final String body;
+        private String allow;
+
+        Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Response text(int status, String body) {
+            return new Response(status, "text/plain", body);
+        }
+
+        static Response methodNotAllowed(String allow) {
+            Response response = text(405, "Method not allowed; use " + allow);
+            response.allow = allow;
+            return response;
+        }
+    }
+}
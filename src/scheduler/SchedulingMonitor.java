@@ -0,0 +1,198 @@
+package scheduler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.time.ZoneId;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Reports one scheduling run, or one rendering of a schedule, to JFR and SchedulerMetrics. When neither
+// is enabled the start methods hand out a shared monitor that ignores everything, so a run pays for two
+// flag checks and the few plain int counters the kernels keep as they go.
+final class SchedulingMonitor {
+
+    private static final EventType SCHEDULE_EVENT = EventType.getEventType(ScheduleEvent.class);
+    private static final EventType RENDER_EVENT = EventType.getEventType(RenderEvent.class);
+    private static final SchedulingMonitor DISABLED = new SchedulingMonitor(null, null, 0);
+
+    private final jdk.jfr.Event event;     // a ScheduleEvent or RenderEvent, begun at the start
+    private final ZoneId zone;
+    private final long startNanos;
+    private final boolean metrics;
+
+    private int tasks;
+    private int workPeriods;
+    private int periodsSplit;
+    private int eventsConsumed;
+    private int partsPlaced;
+    private int partsSplit;
+    private int populatedPeriods = -1;     // -1 if the midnight splits are reported directly
+    private int midnightSplits;
+
+    private SchedulingMonitor(jdk.jfr.Event event, ZoneId zone, long startNanos) {
+        this.event = event;
+        this.zone = zone;
+        this.startNanos = startNanos;
+        metrics = zone != null && SchedulerMetrics.isEnabled();
+    }
+
+    static SchedulingMonitor scheduling(String kernel, SchedulingStrategy strategy, ZoneId zone, int tasks) {
+        if (!SCHEDULE_EVENT.isEnabled() && !SchedulerMetrics.isEnabled()) {
+            return DISABLED;
+        }
+        ScheduleEvent event = new ScheduleEvent();
+        event.kernel = kernel;
+        event.strategy = strategy.getClass().getSimpleName();
+        event.begin();
+        SchedulingMonitor monitor = new SchedulingMonitor(event, zone, System.nanoTime());
+        monitor.tasks = tasks;
+        return monitor;
+    }
+
+    static SchedulingMonitor rendering(ZoneId zone) {
+        if (!RENDER_EVENT.isEnabled() && !SchedulerMetrics.isEnabled()) {
+            return DISABLED;
+        }
+        RenderEvent event = new RenderEvent();
+        event.begin();
+        return new SchedulingMonitor(event, zone, System.nanoTime());
+    }
+
+    // false if nothing is recorded, in which case there is no need to work out what to report
+    boolean isActive() {
+        return zone != null;
+    }
+
+    // what the walk overwriting the periods with events did
+    void overwritten(int workPeriods, int periodsSplit, int eventsConsumed) {
+        if (!isActive()) return;
+        this.workPeriods = workPeriods;
+        this.periodsSplit = periodsSplit;
+        this.eventsConsumed = eventsConsumed;
+    }
+
+    // Counts the parts in the populated periods, before any are split at midnight. A task split into n
+    // parts was split n - 1 times; every part of a task belongs to the same ScheduledTask.
+    void populated(List<WorkPeriod> periods) {
+        if (!isActive()) return;
+        Map<ScheduledTask, Integer> partsByTask = new IdentityHashMap<>();
+        int placed = 0;
+        for (WorkPeriod p : periods) {
+            for (TaskPart tp : p.getTaskParts()) {
+                partsByTask.merge(tp.getScheduledTask(), 1, Integer::sum);
+                placed++;
+            }
+        }
+        populated(placed, placed - partsByTask.size());
+        populatedPeriods = periods.size();
+    }
+
+    void populated(int partsPlaced, int partsSplit) {
+        if (!isActive()) return;
+        this.partsPlaced = partsPlaced;
+        this.partsSplit = partsSplit;
+    }
+
+    void splitAtMidnight(int splits) {
+        if (!isActive()) return;
+        midnightSplits = splits;
+    }
+
+    void finished(Schedule schedule) {
+        if (!isActive()) return;
+        long nanos = System.nanoTime() - startNanos;
+        int events = schedule.getEvents().size();
+        if (populatedPeriods >= 0) {
+            // each split adds one period
+            midnightSplits = schedule.getScheduledPeriods().size() - populatedPeriods;
+        }
+        int calendarSize = workPeriods + events + tasks;
+
+        ScheduleEvent event = (ScheduleEvent) this.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.zone = zone.getId();
+            event.calendarSize = calendarSize;
+            event.workPeriods = workPeriods;
+            event.events = events;
+            event.tasks = tasks;
+            event.periodsSplit = periodsSplit;
+            event.eventsConsumed = eventsConsumed;
+            event.partsPlaced = partsPlaced;
+            event.partsSplit = partsSplit;
+            event.midnightSplits = midnightSplits;
+            event.infeasibleTasks = schedule.getInfeasibleTasks().size();
+            event.successful = schedule.isSuccessful();
+            event.commit();
+        }
+        if (metrics) {
+            SchedulerMetrics.record(SchedulerMetrics.SCHEDULE_TIME, zone, calendarSize, nanos);
+            SchedulerMetrics.record(SchedulerMetrics.PERIODS_SPLIT, zone, calendarSize, periodsSplit);
+            SchedulerMetrics.record(SchedulerMetrics.EVENTS_CONSUMED, zone, calendarSize, eventsConsumed);
+            SchedulerMetrics.record(SchedulerMetrics.PARTS_PLACED, zone, calendarSize, partsPlaced);
+            SchedulerMetrics.record(SchedulerMetrics.PARTS_SPLIT, zone, calendarSize, partsSplit);
+            SchedulerMetrics.record(SchedulerMetrics.MIDNIGHT_SPLITS, zone, calendarSize, midnightSplits);
+        }
+    }
+
+    void rendered(Schedule schedule, int midnightSplits) {
+        if (!isActive()) return;
+        long nanos = System.nanoTime() - startNanos;
+        int periods = schedule.getScheduledPeriods().size();
+        int events = schedule.getEvents().size();
+        int calendarSize = periods + events;
+
+        RenderEvent event = (RenderEvent) this.event;
+        event.end();
+        if (event.shouldCommit()) {
+            event.zone = zone.getId();
+            event.calendarSize = calendarSize;
+            event.periods = periods;
+            event.events = events;
+            event.midnightSplits = midnightSplits;
+            event.commit();
+        }
+        if (metrics) {
+            SchedulerMetrics.record(SchedulerMetrics.RENDER_TIME, zone, calendarSize, nanos);
+            SchedulerMetrics.record(SchedulerMetrics.RENDER_MIDNIGHT_SPLITS, zone, calendarSize, midnightSplits);
+        }
+    }
+
+    @Name("scheduler.Schedule")
+    @Label("Schedule")
+    @Category("Scheduler")
+    @Description("A calendar scheduled by createSchedule, createTimelineSchedule or reschedule")
+    static final class ScheduleEvent extends jdk.jfr.Event {
+        @Label("Kernel") String kernel;
+        @Label("Strategy") String strategy;
+        @Label("Zone") String zone;
+        @Label("Calendar Size") @Description("Work periods, events and tasks") int calendarSize;
+        @Label("Work Periods") int workPeriods;
+        @Label("Events") int events;
+        @Label("Tasks") int tasks;
+        @Label("Periods Split") @Description("Work periods split by an event starting inside them") int periodsSplit;
+        @Label("Events Consumed") int eventsConsumed;
+        @Label("Parts Placed") int partsPlaced;
+        @Label("Parts Split") @Description("Task parts split to fill a period") int partsSplit;
+        @Label("Midnight Splits") int midnightSplits;
+        @Label("Infeasible Tasks") int infeasibleTasks;
+        @Label("Successful") boolean successful;
+    }
+
+    @Name("scheduler.Render")
+    @Label("Render Schedule")
+    @Category("Scheduler")
+    @Description("A schedule written by toString or writeTo")
+    static final class RenderEvent extends jdk.jfr.Event {
+        @Label("Zone") String zone;
+        @Label("Calendar Size") @Description("Periods and events") int calendarSize;
+        @Label("Periods") int periods;
+        @Label("Events") int events;
+        @Label("Midnight Splits") int midnightSplits;
+    }
+}
@@ -0,0 +1,29 @@
+package scheduler;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+// How a calendar's tasks are placed into the time its events leave free, set with
+// SchedulerCalendar.setSchedulingStrategy. The greedy strategy is the default.
+public interface SchedulingStrategy {
+
+    // Fills the periods, which are empty and in start order, with parts of the tasks, which are in the user's
+    // order of priority, using no time before scheduleStart. The parts in a period run on from its start (or
+    // from scheduleStart), so a strategy that leaves time unused before a part splits the period there,
+    // replacing it in the list with the pieces. Returns the tasks that could not be scheduled in full, in the
+    // order given.
+    List<InfeasibleTask> populate(List<WorkPeriod> periods, List<Task> tasks, LocalDateTime scheduleStart, ZoneId zoneId);
+
+    // Pours the tasks, in order, into each period in turn. Deadlines, earliest starts and minimum parts
+    // are not taken into account.
+    static SchedulingStrategy greedy() {
+        return GreedyStrategy.INSTANCE;
+    }
+
+    // Works on whichever task that can start has the earliest deadline, leaving out the tasks that cannot be
+    // finished in time
+    static SchedulingStrategy earliestDeadlineFirst() {
+        return EarliestDeadlineFirst.INSTANCE;
+    }
+}
@@ -1,3 +1,5 @@
+package scheduler;
+
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
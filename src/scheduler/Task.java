@@ -0,0 +1,75 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// The times a task may start and must be finished by are local times in the zone the calendar is scheduled
+// in, like the schedule start. They are only taken into account by strategies that say so.
+public class Task {
+
+	private final Duration duration;
+	private final String description;
+	private final LocalDateTime earliestStart;	// null if it can start at once
+	private final LocalDateTime deadline;		// null if there is none
+	private final Duration minimumPart;			// the shortest part it is worth splitting off
+
+	private Task(Duration duration, String description, LocalDateTime earliestStart, LocalDateTime deadline, Duration minimumPart) {
+		if (earliestStart != null && deadline != null && !deadline.isAfter(earliestStart)) {
+			throw new IllegalArgumentException("Task deadline must be after its earliest start: " + earliestStart + " to " + deadline);
+		}
+		if (minimumPart.isNegative() || minimumPart.isZero()) {
+			throw new IllegalArgumentException("Task minimum part must be positive: " + minimumPart);
+		}
+		this.duration = duration;
+		this.description = description;
+		this.earliestStart = earliestStart;
+		this.deadline = deadline;
+		this.minimumPart = minimumPart;
+	}
+
+	public Task(Duration duration, String description) {
+		this(duration, description, null, null, WorkPeriod.MINIMUM_DURATION);
+	}
+
+	public Task(int hours, int minutes, String description) {
+		this(Duration.ofHours(hours).plus(Duration.ofMinutes(minutes)), description);
+	}
+
+	public Task(int minutes, String description) {
+		this(Duration.ofMinutes(minutes), description);
+	}
+
+	// The with* methods return a new Task, which a calendar treats as a different task from this one
+
+	public Task withEarliestStart(LocalDateTime earliestStart) {
+		return new Task(duration, description, earliestStart, deadline, minimumPart);
+	}
+
+	public Task withDeadline(LocalDateTime deadline) {
+		return new Task(duration, description, earliestStart, deadline, minimumPart);
+	}
+
+	public Task withMinimumPart(Duration minimumPart) {
+		return new Task(duration, description, earliestStart, deadline, minimumPart);
+	}
+
+	public Duration getDuration() {
+		return duration;
+	}
+
+	String getDescription() {
+		return description;
+	}
+
+	LocalDateTime getEarliestStart() {
+		return earliestStart;
+	}
+
+	LocalDateTime getDeadline() {
+		return deadline;
+	}
+
+	Duration getMinimumPart() {
+		return minimumPart;
+	}
+}
@@ -0,0 +1,85 @@
+package scheduler;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+// Immutable; a part belongs to the schedule run that created it, through its ScheduledTask
+public class TaskPart {
+
+	final private ScheduledTask owner;
+	final private int partSequenceNumber;
+	final private Duration duration;
+
+	TaskPart(ScheduledTask owner, Duration duration, int partSequenceNumber) {
+		this.owner = owner;
+		this.duration = duration;
+		this.partSequenceNumber = partSequenceNumber;
+	}
+
+	Task getOwner() {
+		return owner.getTask();
+	}
+
+	ScheduledTask getScheduledTask() {
+		return owner;
+	}
+
+	int getPartSequenceNumber() {
+		return partSequenceNumber;
+	}
+
+	public Duration getDuration() {
+		return duration;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+
+		TaskPart taskPart = (TaskPart) o;
+
+		return partSequenceNumber == taskPart.partSequenceNumber && getOwner().equals(taskPart.getOwner()) && duration.equals(taskPart.duration);
+	}
+
+	@Override
+	public int hashCode() {
+		int result = getOwner().hashCode();
+		result = 31 * result + duration.hashCode();
+		result = 31 * result + partSequenceNumber;
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return appendTo(new StringBuilder()).toString();
+	}
+
+	StringBuilder appendTo(StringBuilder sb) {
+		return appendTo(sb, duration);
+	}
+
+	// as if the part lasted for the given time; for a slice of it
+	StringBuilder appendTo(StringBuilder sb, Duration duration) {
+		int taskPartCount = owner.getPartCount();
+		sb.append(getOwner().getDescription());
+		if (taskPartCount != 1) {
+			sb.append('(').append(partSequenceNumber).append('/').append(taskPartCount).append(')');
+		}
+		return Utils.appendDuration(sb.append(", "), duration);
+	}
+
+	// The first part of the task in a new schedule run
+	public static TaskPart wholeOf(Task t) {
+		return new ScheduledTask(t).createTaskPart(t.getDuration());
+	}
+
+	// Leaves this part as it is; returns a part of the given duration with the same number, and the
+	// remainder as a new part of the same task
+	public List<TaskPart> split(Duration beforeSplitDuration) {
+		TaskPart tp1 = new TaskPart(owner, beforeSplitDuration, partSequenceNumber);
+		TaskPart tp2 = owner.createTaskPart(duration.minus(beforeSplitDuration));
+		return Arrays.asList(tp1, tp2);
+	}
+}
@@ -0,0 +1,221 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+// Schedules one backlog of tasks across a team, each member with their own calendar and zone. The time each
+// member's calendar leaves free is worked out for all of them in parallel. The members are then merged into
+// one stream, ordered by the instant each is next free, and the task parts, in the order of the backlog, go
+// to whoever is free first, split at the end of a period as a calendar's greedy strategy would split them.
+// A task split at the end of a period is carried on by the same member, in their next period with time in it,
+// so that no task is worked on by two people at once or has a part start before the one before it ends.
+// The members' own tasks are not scheduled. Like the columnar kernel, it works to the second.
+public class TeamScheduler {
+
+    private static final long MINIMUM_SECONDS = WorkPeriod.MINIMUM_DURATION.getSeconds();
+
+    private final List<Member> members = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private final List<Task> tasks = new ArrayList<>();
+
+    public TeamScheduler addMember(String name, SchedulerCalendar calendar, ZoneId zoneId) {
+        if (!names.add(name)) {
+            throw new IllegalArgumentException("Team already has a member called " + name);
+        }
+        members.add(new Member(name, calendar, zoneId));
+        return this;
+    }
+
+    // tasks are scheduled in the order added, which is their order of priority
+    public TeamScheduler addTask(Task task) {
+        tasks.add(task);
+        return this;
+    }
+
+    public TeamScheduler addTasks(List<Task> tasks) {
+        this.tasks.addAll(tasks);
+        return this;
+    }
+
+    // Schedules the backlog from the given instant on. The members' calendars are only read, and may be
+    // scheduled on their own at the same time.
+    public Result schedule(Instant start) {
+        // in member order, however the work was shared out
+        List<Availability> team = members.parallelStream()
+                .map(m -> new Availability(m, start))
+                .collect(toList());
+        PriorityQueue<Availability> byNextFree = new PriorityQueue<>(Math.max(1, team.size()),
+                Comparator.comparingLong((Availability a) -> a.cursor).thenComparingInt(a -> a.index));
+        for (int i = 0; i < team.size(); i++) {
+            Availability a = team.get(i);
+            a.index = i;
+            if (a.hasTime()) {
+                byNextFree.add(a);
+            }
+        }
+
+        Deque<TaskPart> taskParts = GreedyStrategy.wholeParts(tasks);
+        long taken = 0;         // parts taken from the backlog so far
+        int carrying = 0;       // members part way through a task
+        while (!byNextFree.isEmpty() && (!taskParts.isEmpty() || carrying > 0)) {
+            Availability a = byNextFree.poll();
+            if (a.carried == null) {
+                if (taskParts.isEmpty()) {
+                    continue;   // nothing left for this member to do
+                }
+                a.taken = taken++;
+            } else {
+                carrying--;
+            }
+            a.place(taskParts);
+            if (a.carried != null) {
+                carrying++;
+            }
+            if (a.hasTime()) {
+                byNextFree.add(a);
+            }
+        }
+
+        // the tasks members ran out of time to finish came before any still in the backlog
+        Deque<TaskPart> unplaced = new ArrayDeque<>();
+        team.stream()
+                .filter(a -> a.carried != null)
+                .sorted(Comparator.comparingLong(a -> a.taken))
+                .forEach(a -> unplaced.add(a.carried));
+        unplaced.addAll(taskParts);
+        List<InfeasibleTask> infeasible = GreedyStrategy.unplaced(unplaced);
+
+        // one after another, as splitting periods at midnight numbers new parts of tasks shared between members
+        Map<String, Schedule> schedules = new LinkedHashMap<>();
+        for (Availability a : team) {
+            schedules.put(a.member.name, a.toSchedule(infeasible));
+        }
+        return new Result(schedules, infeasible);
+    }
+
+    private static final class Member {
+
+        private final String name;
+        private final SchedulerCalendar calendar;
+        private final ZoneId zoneId;
+
+        Member(String name, SchedulerCalendar calendar, ZoneId zoneId) {
+            this.name = name;
+            this.calendar = calendar;
+            this.zoneId = zoneId;
+        }
+    }
+
+    // A member's free periods, with the instants each can be worked in, and how far they have been filled
+    private static final class Availability {
+
+        private final Member member;
+        private final LocalDateTime localStart;
+        private final List<WorkPeriod> periods;
+        private final long[] starts;    // epoch seconds, no earlier than the schedule start
+        private final long[] ends;
+        private int index;              // the member's place in the team
+        private int period;             // the period being filled
+        private long cursor;            // the instant the next part would start at
+        private TaskPart carried;       // the rest of a task the member has started, or null
+        private long taken;             // when the task the member is on was taken from the backlog
+
+        Availability(Member member, Instant start) {
+            this.member = member;
+            localStart = LocalDateTime.ofInstant(start, member.zoneId);
+            periods = member.calendar.freePeriods(localStart, member.zoneId);
+            ZoneOffsetCache offsets = ZoneOffsetCache.of(member.zoneId);
+            starts = new long[periods.size()];
+            ends = new long[periods.size()];
+            for (int i = 0; i < periods.size(); i++) {
+                WorkPeriod p = periods.get(i);
+                starts[i] = Math.max(offsets.toEpochSecond(p.getStartTime()), start.getEpochSecond());
+                ends[i] = offsets.toEpochSecond(p.getEndTime());
+            }
+            period = -1;
+            nextPeriod();
+        }
+
+        boolean hasTime() {
+            return period < periods.size();
+        }
+
+        // Places the rest of the task the member is on, or failing that the first of the parts, or as much of it
+        // as fits if that is worth it, and moves on to the next period once this one is full. What does not fit
+        // of a task the member has started is kept for their next period.
+        void place(Deque<TaskPart> taskParts) {
+            boolean started = carried != null;
+            TaskPart tp = started ? carried : taskParts.poll();
+            carried = null;
+            long available = ends[period] - cursor;
+            long seconds = tp.getDuration().getSeconds();
+            if (seconds <= available) {
+                periods.get(period).addTaskPart(tp);
+                cursor += seconds;
+                if (cursor >= ends[period]) {
+                    nextPeriod();
+                }
+                return;
+            }
+            // not worth switching to a new task for just a few minutes
+            if (available >= MINIMUM_SECONDS) {
+                List<TaskPart> split = tp.split(Duration.ofSeconds(available));
+                periods.get(period).addTaskPart(split.get(0));
+                carried = split.get(1);
+            } else if (started) {
+                carried = tp;
+            } else {
+                taskParts.offerFirst(tp);
+            }
+            nextPeriod();
+        }
+
+        private void nextPeriod() {
+            do {
+                period++;
+            } while (period < periods.size() && ends[period] <= starts[period]);
+            if (period < periods.size()) {
+                cursor = starts[period];
+            }
+        }
+
+        // unsuccessful, like a calendar's own schedule, if the team had no time for some of the tasks
+        Schedule toSchedule(List<InfeasibleTask> infeasible) {
+            return new Schedule(member.zoneId, localStart, periods, member.calendar.eventsOver(periods, member.zoneId), infeasible);
+        }
+    }
+
+    // Each member's Schedule, by name in the order they were added, and the tasks the team had no time for.
+    // Each member's schedule is successful only if the team's is, and lists the same infeasible tasks.
+    public static class Result {
+
+        private final Map<String, Schedule> schedules;
+        private final List<InfeasibleTask> infeasibleTasks;
+
+        private Result(Map<String, Schedule> schedules, List<InfeasibleTask> infeasibleTasks) {
+            this.schedules = Collections.unmodifiableMap(schedules);
+            this.infeasibleTasks = Collections.unmodifiableList(infeasibleTasks);
+        }
+
+        public Map<String, Schedule> getSchedules() {
+            return schedules;
+        }
+
+        public Schedule getSchedule(String member) {
+            return schedules.get(member);
+        }
+
+        public List<InfeasibleTask> getInfeasibleTasks() {
+            return infeasibleTasks;
+        }
+
+        public boolean isSuccessful() {
+            return infeasibleTasks.isEmpty();
+        }
+    }
+}
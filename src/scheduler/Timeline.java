@@ -0,0 +1,496 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// An alternative scheduling kernel that works on columns of epoch seconds instead of WorkPeriod, Event
+// and TaskPart objects. Work periods and events are projected once into sorted long[] columns of local
+// epoch seconds in the schedule zone, and tasks into a long[] of durations; overwriting periods with
+// events and populating them with task parts then allocate nothing per period. Objects are only created
+// at the end, to build the same Schedule that SchedulerCalendar.createSchedule would.
+//
+// A Timeline can be kept after scheduling and told about events added and tasks appended since. The
+// next schedule() then recomputes only the free periods from the first one the change can affect;
+// the periods before it, with their task parts, are carried over from the previous Schedule.
+//
+// Times and durations are handled to the second; any fraction of a second is ignored.
+final class Timeline {
+
+    private static final long MINIMUM_SECONDS = WorkPeriod.MINIMUM_DURATION.getSeconds();
+    private static final int CLEAN = Integer.MAX_VALUE;
+
+    private final NavigableSet<Event> events;   // the calendar's own, which each Schedule copies
+    private final List<Task> tasks;             // the calendar's own; only appends are supported
+    private final LocalDateTime scheduleStart;
+    private final ZoneId zoneId;
+    private final ZoneOffsetCache offsets;
+    private final long scheduleStartSecond;
+
+    // work period columns, local epoch seconds in the schedule zone
+    private final long[] periodStarts;
+    private final long[] periodEnds;
+
+    // event columns, in the calendar's event order (by start instant); times are local epoch seconds
+    private long[] eventInstants;   // start instant, to find where an added event belongs
+    private long[] eventStarts;
+    private long[] eventEnds;
+    private long[] eventMaxEnds;    // latest end of this and every earlier event
+    private int eventCount;
+
+    private long[] taskSeconds;
+    private int taskCount;
+
+    // free periods, what is left of the work periods once events are taken out, in start order. The
+    // cursor columns hold the task being scheduled when each free period is reached and the seconds of
+    // it still unscheduled; they have one extra entry for the state after the last free period.
+    private long[] freeStarts;
+    private long[] freeEnds;
+    private int[] cursorTasks;
+    private long[] cursorSeconds;
+    private int[] firstPlacements;
+    private int freeCount;
+
+    // task parts placed into the free periods, in placement order
+    private int[] placedPeriods;
+    private int[] placedTasks;
+    private long[] placedSeconds;
+    private int placedCount;
+
+    // the Schedule's periods, the populated ones split at midnight, and the index of the first of them
+    // from each free period; like the cursor columns, scheduledFrom has an entry for the end
+    private List<WorkPeriod> scheduledPeriods = new ArrayList<>();
+    private int[] scheduledFrom;
+    private final Schedule.MidnightSplitter midnightSplitter = new Schedule.MidnightSplitter();
+
+    // first free period to overwrite again / populate again on the next schedule(), or CLEAN
+    private int overwriteFrom = 0;
+    private int populateFrom = 0;
+    // false once events or free periods have been found out of local order, which happens only around
+    // a DST overlap and rules out overwriting just a suffix of the free periods
+    private boolean ordered = true;
+
+    // what the last schedule() did, for SchedulingMonitor; only the free periods it rewrote are counted
+    private int periodsSplit;
+    private int eventsConsumed;
+
+    Timeline(NavigableSet<WorkPeriod> workPeriods, NavigableSet<Event> events, List<Task> tasks,
+             LocalDateTime scheduleStart, ZoneId zoneId) {
+        this.events = events;
+        this.tasks = tasks;
+        this.scheduleStart = scheduleStart;
+        this.zoneId = zoneId;
+
+        periodStarts = new long[workPeriods.size()];
+        periodEnds = new long[workPeriods.size()];
+        int i = 0;
+        for (WorkPeriod p : workPeriods) {
+            periodStarts[i] = localEpochSecond(p.getStartTime());
+            periodEnds[i] = localEpochSecond(p.getEndTime());
+            i++;
+        }
+
+        long windowStart = periodStarts.length == 0 ? 0 : periodStarts[0];
+        long windowEnd = periodEnds.length == 0 ? 0 : periodEnds[periodEnds.length - 1];
+        for (Event e : events) {
+            windowStart = Math.min(windowStart, e.getStartTime().toEpochSecond());
+            windowEnd = Math.max(windowEnd, e.getEndTime().toEpochSecond());
+        }
+        offsets = new ZoneOffsetCache(zoneId, windowStart, windowEnd);
+        scheduleStartSecond = offsets.toEpochSecond(localEpochSecond(scheduleStart));
+
+        eventInstants = new long[events.size()];
+        eventStarts = new long[events.size()];
+        eventEnds = new long[events.size()];
+        eventMaxEnds = new long[events.size()];
+        for (Event e : events) {
+            eventInstants[eventCount] = e.getStartTime().toEpochSecond();
+            eventStarts[eventCount] = offsets.toLocalEpochSecond(eventInstants[eventCount]);
+            eventEnds[eventCount] = offsets.toLocalEpochSecond(e.getEndTime().toEpochSecond());
+            ordered &= eventCount == 0 || eventStarts[eventCount - 1] <= eventStarts[eventCount];
+            eventCount++;
+        }
+        updateMaxEnds(0);
+
+        taskSeconds = new long[Math.max(tasks.size(), 8)];
+        for (Task t : tasks) {
+            taskSeconds[taskCount++] = t.getDuration().getSeconds();
+        }
+
+        int capacity = periodStarts.length + eventStarts.length;
+        freeStarts = new long[capacity];
+        freeEnds = new long[capacity];
+        cursorTasks = new int[capacity + 1];
+        cursorSeconds = new long[capacity + 1];
+        firstPlacements = new int[capacity + 1];
+        scheduledFrom = new int[capacity + 1];
+        placedPeriods = new int[taskCount + capacity];
+        placedTasks = new int[taskCount + capacity];
+        placedSeconds = new long[taskCount + capacity];
+    }
+
+    static Schedule createSchedule(NavigableSet<WorkPeriod> workPeriods, NavigableSet<Event> events, List<Task> tasks,
+                                   LocalDateTime scheduleStart, ZoneId zoneId) {
+        return new Timeline(workPeriods, events, tasks, scheduleStart, zoneId).schedule();
+    }
+
+    boolean isFor(LocalDateTime scheduleStart, ZoneId zoneId) {
+        return this.scheduleStart.equals(scheduleStart) && this.zoneId.equals(zoneId);
+    }
+
+    // Brings the schedule up to date with the changes reported since the last call
+    Schedule schedule() {
+        SchedulingMonitor monitor = SchedulingMonitor.scheduling("timeline", SchedulingStrategy.greedy(), zoneId, taskCount);
+        int midnightSplits = midnightSplitter.getSplits();
+        periodsSplit = 0;
+        eventsConsumed = 0;
+        if (overwriteFrom != CLEAN) {
+            populateFrom = Math.min(populateFrom, overwritePeriodsWithEvents(Math.min(overwriteFrom, freeCount)));
+        }
+        if (populateFrom != CLEAN) {
+            int from = Math.min(populateFrom, freeCount);
+            populatePeriods(from);
+            toWorkPeriods(firstWithWholeTasks(from));
+        }
+        overwriteFrom = CLEAN;
+        populateFrom = CLEAN;
+        if (monitor.isActive()) {
+            monitor.overwritten(periodStarts.length, periodsSplit, eventsConsumed);
+            monitor.populated(placedCount, placedCount - tasksPlaced());
+            monitor.splitAtMidnight(midnightSplitter.getSplits() - midnightSplits);
+        }
+        Schedule schedule = new Schedule(zoneId, scheduleStart, scheduledPeriods, events, unplaced());
+        monitor.finished(schedule);
+        return schedule;
+    }
+
+    // how many tasks have parts placed; a task's parts are placed one after another
+    private int tasksPlaced() {
+        int count = 0;
+        for (int i = 0; i < placedCount; i++) {
+            if (i == 0 || placedTasks[i] != placedTasks[i - 1]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // The tasks not placed in full, as GreedyStrategy reports them: the one being placed when the free
+    // periods ran out, and all after it
+    private List<InfeasibleTask> unplaced() {
+        int task = cursorTasks[freeCount];
+        List<InfeasibleTask> result = new ArrayList<>(taskCount - task);
+        for (int i = task; i < taskCount; i++) {
+            Task t = tasks.get(i);
+            long scheduled = i == task ? taskSeconds[i] - cursorSeconds[freeCount] : 0;
+            result.add(new InfeasibleTask(t, InfeasibleTask.Reason.NO_TIME, Duration.ofSeconds(scheduled)));
+        }
+        return result;
+    }
+
+    // Must be called after the event has been added to the calendar's events
+    void addEvent(Event e) {
+        long instant = e.getStartTime().toEpochSecond();
+        int index = floorIndex(eventInstants, eventCount, instant) + 1;
+        if (eventCount == eventInstants.length) {
+            int capacity = Math.max(8, eventCount * 2);
+            eventInstants = Arrays.copyOf(eventInstants, capacity);
+            eventStarts = Arrays.copyOf(eventStarts, capacity);
+            eventEnds = Arrays.copyOf(eventEnds, capacity);
+            eventMaxEnds = Arrays.copyOf(eventMaxEnds, capacity);
+        }
+        int moved = eventCount - index;
+        System.arraycopy(eventInstants, index, eventInstants, index + 1, moved);
+        System.arraycopy(eventStarts, index, eventStarts, index + 1, moved);
+        System.arraycopy(eventEnds, index, eventEnds, index + 1, moved);
+        eventInstants[index] = instant;
+        eventStarts[index] = offsets.toLocalEpochSecond(instant);
+        eventEnds[index] = offsets.toLocalEpochSecond(e.getEndTime().toEpochSecond());
+        eventCount++;
+        updateMaxEnds(index);
+        ordered &= (index == 0 || eventStarts[index - 1] <= eventStarts[index])
+                && (index == eventCount - 1 || eventStarts[index] <= eventStarts[index + 1]);
+        ensureFreeCapacity(periodStarts.length + eventCount);
+
+        // an event only takes time out of the free periods it overlaps, the first of which is
+        // the first free period to end after the event starts
+        int affected = firstIndexAbove(freeEnds, freeCount, eventStarts[index]);
+        overwriteFrom = Math.min(overwriteFrom, affected);
+    }
+
+    // Must be called after the task has been appended to the calendar's tasks
+    void addTask(Task t) {
+        int appended = taskCount;
+        if (taskCount == taskSeconds.length) {
+            taskSeconds = Arrays.copyOf(taskSeconds, taskCount * 2);
+        }
+        taskSeconds[taskCount++] = t.getDuration().getSeconds();
+
+        // the new task goes after the last task part placed, so population restarts at the free period
+        // holding that part; if the earlier tasks never all fitted, nothing changes
+        int low = 0;
+        int high = freeCount;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (cursorTasks[mid] < appended) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int exhausted = low;
+        int affected = exhausted > freeCount ? freeCount : Math.max(0, exhausted - 1);
+        populateFrom = Math.min(populateFrom, affected);
+    }
+
+    private void updateMaxEnds(int from) {
+        for (int i = from; i < eventCount; i++) {
+            eventMaxEnds[i] = i == 0 ? eventEnds[i] : Math.max(eventMaxEnds[i - 1], eventEnds[i]);
+        }
+    }
+
+    private void ensureFreeCapacity(int capacity) {
+        if (capacity > freeStarts.length) {
+            capacity = Math.max(capacity, freeStarts.length * 2);
+            freeStarts = Arrays.copyOf(freeStarts, capacity);
+            freeEnds = Arrays.copyOf(freeEnds, capacity);
+            cursorTasks = Arrays.copyOf(cursorTasks, capacity + 1);
+            cursorSeconds = Arrays.copyOf(cursorSeconds, capacity + 1);
+            firstPlacements = Arrays.copyOf(firstPlacements, capacity + 1);
+            scheduledFrom = Arrays.copyOf(scheduledFrom, capacity + 1);
+        }
+    }
+
+    // The same walk as SchedulerCalendar.overwritePeriodsWithEvents, over the columns. It restarts at the
+    // work period holding the given free period, with the first event that can still overlap it, and
+    // returns the index of the first free period it rewrote.
+    private int overwritePeriodsWithEvents(int from) {
+        if (!ordered) {
+            from = 0;
+        } else if (from > 0 && from == freeCount) {
+            return freeCount;
+        }
+        if (periodStarts.length == 0) {
+            freeCount = 0;
+            return 0;
+        }
+        int period = from == 0 ? 0 : floorIndex(periodStarts, periodStarts.length, freeStarts[from]);
+        int event = firstIndexAbove(eventMaxEnds, eventCount, periodStarts[period]);
+        int first = period == 0 ? 0 : firstIndexAbove(freeStarts, freeCount, periodStarts[period] - 1);
+        freeCount = first;
+
+        long start = periodStarts[period];
+        long end = periodEnds[period];
+        while (period < periodStarts.length && event < eventCount) {
+            if (end <= eventStarts[event]) {
+                // non-overlapping, period first
+                addFreePeriod(start, end);
+                period++;
+                start = period < periodStarts.length ? periodStarts[period] : 0;
+                end = period < periodStarts.length ? periodEnds[period] : 0;
+            } else if (start >= eventEnds[event]) {
+                // non-overlapping, event first
+                event++;
+                eventsConsumed++;
+            } else if (start < eventStarts[event]) {
+                // overlapping, period starts first
+                addFreePeriod(start, eventStarts[event]);
+                start = eventStarts[event];
+                periodsSplit++;
+            } else if (end > eventEnds[event]) {
+                // overlapping, event starts first or at same time
+                start = eventEnds[event];
+                event++;
+                eventsConsumed++;
+                periodsSplit++;
+            } else {
+                // event encloses period
+                period++;
+                start = period < periodStarts.length ? periodStarts[period] : 0;
+                end = period < periodStarts.length ? periodEnds[period] : 0;
+            }
+        }
+        if (period < periodStarts.length) {
+            addFreePeriod(start, end);
+            for (period++; period < periodStarts.length; period++) {
+                addFreePeriod(periodStarts[period], periodEnds[period]);
+            }
+        }
+
+        for (int i = Math.max(first, 1); i < freeCount && ordered; i++) {
+            ordered = freeStarts[i - 1] < freeStarts[i];
+        }
+        if (!ordered && first > 0) {
+            return overwritePeriodsWithEvents(0);
+        } else if (!ordered) {
+            sortFreePeriods();
+        }
+        return first;
+    }
+
+    private void addFreePeriod(long start, long end) {
+        freeStarts[freeCount] = start;
+        freeEnds[freeCount] = end;
+        freeCount++;
+    }
+
+    // Events are walked in instant order, so across a DST overlap their local times can run backwards
+    // and the free periods come out of order. SchedulerCalendar collects them in a TreeSet, which sorts
+    // them and keeps only the first of any with the same start; this does the same on the rare occasions
+    // it is needed.
+    private void sortFreePeriods() {
+        Integer[] order = new Integer[freeCount];
+        for (int i = 0; i < freeCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> freeStarts[i]));  // stable, so first added wins
+        long[] starts = new long[freeStarts.length];
+        long[] ends = new long[freeEnds.length];
+        int count = 0;
+        for (int i : order) {
+            if (count == 0 || starts[count - 1] != freeStarts[i]) {
+                starts[count] = freeStarts[i];
+                ends[count] = freeEnds[i];
+                count++;
+            }
+        }
+        freeStarts = starts;
+        freeEnds = ends;
+        freeCount = count;
+    }
+
+    // The same greedy first fit as WorkPeriod.populateTaskPartList, applied to every free period in turn
+    // from the given one. Tasks are consumed in order, so the next task part is always the remainder of
+    // the current task.
+    private void populatePeriods(int from) {
+        int task = from == 0 ? 0 : cursorTasks[from];
+        long remaining = from == 0 ? (taskCount == 0 ? 0 : taskSeconds[0]) : cursorSeconds[from];
+        placedCount = from == 0 ? 0 : firstPlacements[from];
+
+        for (int period = from; period < freeCount; period++) {
+            cursorTasks[period] = task;
+            cursorSeconds[period] = remaining;
+            firstPlacements[period] = placedCount;
+            if (task == taskCount) continue;
+
+            long start = Math.max(offsets.toEpochSecond(freeStarts[period]), scheduleStartSecond);
+            long available = offsets.toEpochSecond(freeEnds[period]) - start;
+            while (task < taskCount && available >= remaining) {
+                place(period, task, remaining);
+                available -= remaining;
+                task++;
+                remaining = task < taskCount ? taskSeconds[task] : 0;
+            }
+            // not worth switching to a new task for just a few minutes
+            if (task < taskCount && available >= MINIMUM_SECONDS) {
+                place(period, task, available);
+                remaining -= available;
+            }
+        }
+        cursorTasks[freeCount] = task;
+        cursorSeconds[freeCount] = remaining;
+        firstPlacements[freeCount] = placedCount;
+    }
+
+    private void place(int period, int task, long seconds) {
+        if (placedCount == placedPeriods.length) {
+            int capacity = Math.max(8, placedCount * 2);
+            placedPeriods = Arrays.copyOf(placedPeriods, capacity);
+            placedTasks = Arrays.copyOf(placedTasks, capacity);
+            placedSeconds = Arrays.copyOf(placedSeconds, capacity);
+        }
+        placedPeriods[placedCount] = period;
+        placedTasks[placedCount] = task;
+        placedSeconds[placedCount] = seconds;
+        placedCount++;
+    }
+
+    // The free period from which the task parts have to be created again after a change from the given one.
+    // A task's parts are numbered within the schedule run that creates them, so a task that was begun in
+    // an earlier free period has all of its parts created again, from the free period holding the first.
+    private int firstWithWholeTasks(int from) {
+        while (from > 0 && cursorTasks[from] < taskCount && cursorSeconds[from] < taskSeconds[cursorTasks[from]]) {
+            int first = firstPlacements[from] - 1;
+            while (first > 0 && placedTasks[first - 1] == cursorTasks[from]) {
+                first--;
+            }
+            from = placedPeriods[first];
+        }
+        return from;
+    }
+
+    // Creates the WorkPeriods and TaskParts from the given free period on, in the same order as the
+    // object-based scheduling creates them so that part sequence numbers come out the same, then splits
+    // the populated ones at midnight as Schedule would. The periods before it are kept from the previous
+    // Schedule; no task has parts both before and after it.
+    private void toWorkPeriods(int from) {
+        List<WorkPeriod> built = new ArrayList<>(freeCount - from);
+        int placement = firstPlacements[from];
+        int task = -1;
+        long remaining = 0;
+        TaskPart part = null;
+        for (int period = from; period < freeCount; period++) {
+            WorkPeriod wp = WorkPeriod.of(localDateTime(freeStarts[period]), localDateTime(freeEnds[period]));
+            for (; placement < placedCount && placedPeriods[placement] == period; placement++) {
+                if (placedTasks[placement] != task) {
+                    task = placedTasks[placement];
+                    remaining = taskSeconds[task];
+                    part = TaskPart.wholeOf(tasks.get(task));
+                }
+                TaskPart placed = part;
+                if (placedSeconds[placement] < remaining) {
+                    List<TaskPart> split = part.split(Duration.ofSeconds(placedSeconds[placement]));
+                    placed = split.get(0);
+                    part = split.get(1);
+                    remaining -= placedSeconds[placement];
+                }
+                wp.addTaskPart(placed);
+            }
+            built.add(wp);
+        }
+
+        List<WorkPeriod> periods = new ArrayList<>(freeCount);
+        periods.addAll(scheduledPeriods.subList(0, scheduledFrom[from]));
+        for (int period = from; period < freeCount; period++) {
+            scheduledFrom[period] = periods.size();
+            WorkPeriod wp = built.get(period - from);
+            if (!wp.getTaskParts().isEmpty() && Schedule.crossesMidnight(wp.getStartTime(), wp.getEndTime())) {
+                midnightSplitter.splitAtAllMidnights(wp, zoneId).forEach(periods::add);
+            } else {
+                periods.add(wp);
+            }
+        }
+        scheduledFrom[freeCount] = periods.size();
+        scheduledPeriods = periods;
+    }
+
+    // index of the last of the first count elements not greater than key, or -1 if there is none
+    private static int floorIndex(long[] sorted, int count, long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+
+    // index of the first of the first count elements greater than key, or count if there is none
+    private static int firstIndexAbove(long[] sorted, int count, long key) {
+        return floorIndex(sorted, count, key) + 1;
+    }
+
+    private static long localEpochSecond(LocalDateTime ldt) {
+        return ldt.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime localDateTime(long localEpochSecond) {
+        return LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,67 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.chrono.IsoChronology;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.FormatStyle;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+public class Utils {
+
+/*
+	public static List<Event> generateStandups(LocalDateTime start, int dayCount, Duration dur, ZoneId zone) {
+		List<LocalDate> workingDays = generateWorkingDays(start.toLocalDate(), dayCount);
+		return workingDays.stream()
+				.map(d -> ZonedDateTime.of(d, start.toLocalTime(), zone))
+				.map(zonedDt -> new Event(zonedDt, dur, "standup"))
+				.collect(toList());
+	}
+*/
+
+	// Monday to Friday; see WorkPattern for other patterns and holidays
+	public static List<LocalDate> generateWorkingDays(LocalDate startDate, int dayCount) {
+		return WorkPattern.standard().workingDays(startDate, dayCount);
+	}
+
+	// unbounded and lazy: days are only generated as the stream is consumed
+	public static Stream<LocalDate> workingDaysFrom(LocalDate startDate) {
+		return WorkPattern.standard().workingDaysFrom(startDate);
+	}
+
+	static String formatDuration(Duration d) {
+		return appendDuration(new StringBuilder(), d).toString();
+	}
+
+	static StringBuilder appendDuration(StringBuilder sb, Duration d) {
+		long hours = d.toHours();
+		if (hours != 0) {
+			sb.append(hours).append(hours == 1 ? "hr " : "hrs ");
+		}
+		long minutes = d.minusHours(hours).toMinutes();
+		return sb.append(minutes).append("mins");
+	}
+
+	// Equivalent to DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT), which looks its pattern up again on
+	// every use; this resolves the pattern once. The default locale is read when the formatter is created, so
+	// the cached one is replaced if the default changes.
+	private static DateTimeFormatter shortTimeFormatter = localizedShortTimeFormatter(Locale.getDefault(Locale.Category.FORMAT));
+
+	static DateTimeFormatter shortTimeFormatter() {
+		DateTimeFormatter formatter = shortTimeFormatter;
+		Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+		if (!formatter.getLocale().equals(locale)) {
+			formatter = localizedShortTimeFormatter(locale);
+			shortTimeFormatter = formatter;
+		}
+		return formatter;
+	}
+
+	private static DateTimeFormatter localizedShortTimeFormatter(Locale locale) {
+		String pattern = DateTimeFormatterBuilder.getLocalizedDateTimePattern(null, FormatStyle.SHORT, IsoChronology.INSTANCE, locale);
+		return DateTimeFormatter.ofPattern(pattern, locale);
+	}
+}
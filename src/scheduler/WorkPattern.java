@@ -0,0 +1,302 @@
+package scheduler;
+
+import java.time.*;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.time.DayOfWeek.FRIDAY;
+import static java.time.DayOfWeek.MONDAY;
+
+// Which days are working days, and the work periods in each: a weekly pattern of days, adjusted by
+// individual dates that are taken off (holidays, leave) or worked after all. A WorkPattern is immutable;
+// the with* methods return a new one, so a team's pattern can be shared and a user's derived from it.
+//
+// Each year is compiled, when first asked about, into a bitmap of its working days with the number of
+// working days before each 64-day word of it. Whether a date is a working day is then one bit, and the
+// Nth working day after a date is found by rank and select over those words, stepping a year at a time.
+public class WorkPattern {
+
+    // years compiled once and kept; others are compiled on each use
+    private static final int FIRST_KEPT_YEAR = 1900;
+    private static final int LAST_KEPT_YEAR = 2400;
+
+    private static final WorkPattern STANDARD = of(EnumSet.range(MONDAY, FRIDAY), WorkPeriods.WORK_PERIOD_LENGTH,
+            WorkPeriods.AM_START_TIME, WorkPeriods.PM_START_TIME);
+
+    private final Set<DayOfWeek> days;
+    private final Duration periodLength;
+    private final LocalTime[] periodStarts;
+    private final NavigableMap<LocalDate, Boolean> exceptions;     // true for a date worked, false for a day off
+    private final YearIndex[] years = new YearIndex[LAST_KEPT_YEAR - FIRST_KEPT_YEAR + 1];
+
+    private WorkPattern(Set<DayOfWeek> days, Duration periodLength, LocalTime[] periodStarts,
+                        NavigableMap<LocalDate, Boolean> exceptions) {
+        this.days = days;
+        this.periodLength = periodLength;
+        this.periodStarts = periodStarts;
+        this.exceptions = exceptions;
+    }
+
+    // Working days of the week, each with work periods of the given length starting at the given times, in
+    // order. A period may run past midnight, but not into the next day's first period.
+    public static WorkPattern of(Set<DayOfWeek> days, Duration periodLength, LocalTime... periodStarts) {
+        if (days.isEmpty()) {
+            throw new IllegalArgumentException("Work pattern needs at least one working day of the week");
+        }
+        if (periodStarts.length == 0) {
+            throw new IllegalArgumentException("Work pattern needs at least one work period a day");
+        }
+        if (periodLength.compareTo(WorkPeriod.MINIMUM_DURATION) < 0) {
+            throw new IllegalArgumentException("Work periods cannot be shorter than " + WorkPeriod.MINIMUM_DURATION + ": " + periodLength);
+        }
+        for (int i = 0; i < periodStarts.length; i++) {
+            long start = periodStarts[i].toSecondOfDay();
+            long nextStart = i + 1 < periodStarts.length
+                    ? periodStarts[i + 1].toSecondOfDay()
+                    : periodStarts[0].toSecondOfDay() + Duration.ofDays(1).getSeconds();
+            if (start + periodLength.getSeconds() >= nextStart) {
+                throw new IllegalArgumentException("Work periods cannot overlap: " + Arrays.toString(periodStarts) + ", " + periodLength);
+            }
+        }
+        return new WorkPattern(EnumSet.copyOf(days), periodLength, periodStarts.clone(), new TreeMap<>());
+    }
+
+    // Monday to Friday, 9 - 5:30, as WorkPeriods
+    public static WorkPattern standard() {
+        return STANDARD;
+    }
+
+    // The same pattern, with these dates not worked
+    public WorkPattern withDaysOff(Collection<LocalDate> dates) {
+        return withExceptions(dates, false);
+    }
+
+    // The same pattern, with these dates worked even if the weekly pattern leaves them out
+    public WorkPattern withWorkingDays(Collection<LocalDate> dates) {
+        return withExceptions(dates, true);
+    }
+
+    // a later exception for a date replaces an earlier one
+    private WorkPattern withExceptions(Collection<LocalDate> dates, boolean working) {
+        NavigableMap<LocalDate, Boolean> combined = new TreeMap<>(exceptions);
+        for (LocalDate d : dates) {
+            combined.put(d, working);
+        }
+        return new WorkPattern(days, periodLength, periodStarts, combined);
+    }
+
+    public boolean isWorkingDay(LocalDate date) {
+        YearIndex year = year(date.getYear());
+        int day = date.getDayOfYear() - 1;
+        return (year.words[day >>> 6] & (1L << day)) != 0;
+    }
+
+    // The working day n working days after date; a negative n counts back. A date that is not a working day
+    // counts as the next one that is, so with n = 0 the result is date or the first working day after it.
+    public LocalDate plusWorkingDays(LocalDate date, int n) {
+        int y = date.getYear();
+        YearIndex year = year(y);
+        // the rank, within its year, of the working day wanted, counting from 1
+        long rank = (long) year.rankBefore(date.getDayOfYear() - 1) + n + 1;
+        while (rank > year.count) {
+            rank -= year.count;
+            year = year(++y);
+        }
+        while (rank < 1) {
+            year = year(--y);
+            rank += year.count;
+        }
+        return year.select((int) rank);
+    }
+
+    // The number of working days from start, inclusive, to end, exclusive
+    public long workingDaysBetween(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            return -workingDaysBetween(end, start);
+        }
+        long count = 0;
+        for (int y = start.getYear(); y < end.getYear(); y++) {
+            count += year(y).count;
+        }
+        return count + year(end.getYear()).rankBefore(end.getDayOfYear() - 1)
+                - year(start.getYear()).rankBefore(start.getDayOfYear() - 1);
+    }
+
+    // The first dayCount working days from startDate, inclusive
+    public List<LocalDate> workingDays(LocalDate startDate, int dayCount) {
+        List<LocalDate> result = new ArrayList<>(dayCount);
+        WorkingDayIterator days = new WorkingDayIterator(startDate);
+        while (result.size() < dayCount) {
+            result.add(LocalDate.ofEpochDay(days.next()));
+        }
+        return result;
+    }
+
+    // unbounded and lazy: days are only found as the stream is consumed
+    public Stream<LocalDate> workingDaysFrom(LocalDate startDate) {
+        WorkingDayIterator days = new WorkingDayIterator(startDate);
+        return stream(new Iterator<LocalDate>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public LocalDate next() {
+                return LocalDate.ofEpochDay(days.next());
+            }
+        });
+    }
+
+    // The work periods of the first dayCount working days from startDate, inclusive
+    public List<WorkPeriod> workPeriods(LocalDate startDate, int dayCount) {
+        List<WorkPeriod> result = new ArrayList<>(dayCount * periodStarts.length);
+        WorkingDayIterator days = new WorkingDayIterator(startDate);
+        for (int i = 0; i < dayCount; i++) {
+            addWorkPeriods(result, LocalDate.ofEpochDay(days.next()));
+        }
+        return result;
+    }
+
+    // unbounded and lazy, suitable as a SchedulerCalendar work period generator
+    public Stream<WorkPeriod> workPeriodsFrom(LocalDate startDate) {
+        WorkingDayIterator days = new WorkingDayIterator(startDate);
+        return stream(new Iterator<WorkPeriod>() {
+            private final List<WorkPeriod> day = new ArrayList<>(periodStarts.length);
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public WorkPeriod next() {
+                if (next == day.size()) {
+                    day.clear();
+                    addWorkPeriods(day, LocalDate.ofEpochDay(days.next()));
+                    next = 0;
+                }
+                return day.get(next++);
+            }
+        });
+    }
+
+    private void addWorkPeriods(List<WorkPeriod> periods, LocalDate date) {
+        for (LocalTime start : periodStarts) {
+            LocalDateTime startDateTime = LocalDateTime.of(date, start);
+            periods.add(WorkPeriod.of(startDateTime, startDateTime.plus(periodLength)));
+        }
+    }
+
+    private static <E> Stream<E> stream(Iterator<E> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    // Walks the working days from a date by scanning the bitmap words, a year at a time
+    private class WorkingDayIterator {
+
+        private int y;
+        private YearIndex year;
+        private int word;
+        private long bits;      // the working days of the current word not yet returned
+
+        WorkingDayIterator(LocalDate startDate) {
+            y = startDate.getYear();
+            year = year(y);
+            int day = startDate.getDayOfYear() - 1;
+            word = day >>> 6;
+            bits = year.words[word] & (-1L << day);
+        }
+
+        // the epoch day of the next working day
+        long next() {
+            while (bits == 0) {
+                if (++word == year.words.length) {
+                    year = year(++y);
+                    word = 0;
+                }
+                bits = year.words[word];
+            }
+            int day = (word << 6) + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            return year.firstEpochDay + day;
+        }
+    }
+
+    private YearIndex year(int y) {
+        if (y < FIRST_KEPT_YEAR || y > LAST_KEPT_YEAR) {
+            return compile(y);
+        }
+        // compiling a year twice in a race is harmless, and a YearIndex is safely published by its final fields
+        YearIndex year = years[y - FIRST_KEPT_YEAR];
+        if (year == null) {
+            year = compile(y);
+            years[y - FIRST_KEPT_YEAR] = year;
+        }
+        return year;
+    }
+
+    private YearIndex compile(int y) {
+        LocalDate first = LocalDate.of(y, 1, 1);
+        int length = first.lengthOfYear();
+        long[] words = new long[(length + 63) >>> 6];
+        int dayOfWeek = first.getDayOfWeek().ordinal();
+        for (int day = 0; day < length; day++) {
+            if (days.contains(DayOfWeek.of((dayOfWeek + day) % 7 + 1))) {
+                words[day >>> 6] |= 1L << day;
+            }
+        }
+        for (Map.Entry<LocalDate, Boolean> e : exceptions.subMap(first, true, LocalDate.of(y, 12, 31), true).entrySet()) {
+            int day = e.getKey().getDayOfYear() - 1;
+            if (e.getValue()) {
+                words[day >>> 6] |= 1L << day;
+            } else {
+                words[day >>> 6] &= ~(1L << day);
+            }
+        }
+        return new YearIndex(first.toEpochDay(), words);
+    }
+
+    private static final class YearIndex {
+
+        final long firstEpochDay;
+        final long[] words;         // bit d of the year's day-of-year - 1 set for a working day
+        final int[] wordRanks;      // the number of working days in the words before each
+        final int count;
+
+        YearIndex(long firstEpochDay, long[] words) {
+            this.firstEpochDay = firstEpochDay;
+            this.words = words;
+            wordRanks = new int[words.length];
+            int total = 0;
+            for (int i = 0; i < words.length; i++) {
+                wordRanks[i] = total;
+                total += Long.bitCount(words[i]);
+            }
+            count = total;
+        }
+
+        // the number of working days in the year before the given day (day of year - 1)
+        int rankBefore(int day) {
+            if (day >= words.length << 6) {
+                return count;
+            }
+            return wordRanks[day >>> 6] + Long.bitCount(words[day >>> 6] & ~(-1L << day));
+        }
+
+        // the working day of the given rank in the year, counting from 1
+        LocalDate select(int rank) {
+            int word = words.length - 1;
+            while (wordRanks[word] >= rank) {
+                word--;
+            }
+            long bits = words[word];
+            for (int skip = rank - wordRanks[word] - 1; skip > 0; skip--) {
+                bits &= bits - 1;
+            }
+            return LocalDate.ofEpochDay(firstEpochDay + (word << 6) + Long.numberOfTrailingZeros(bits));
+        }
+    }
+}
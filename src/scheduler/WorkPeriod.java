@@ -1,6 +1,7 @@
+package scheduler;
+
 import java.time.*;
 import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Deque;
@@ -36,6 +37,11 @@ public class WorkPeriod implements Comparable<WorkPeriod>, Splittable<WorkPeriod
         return ldt.isAfter(startTime) && ldt.isBefore(endTime);
     }
 
+    // a period with the same times and task parts, which can be populated without changing this one
+    WorkPeriod copy() {
+        return new WorkPeriod(startTime, endTime, new ArrayList<>(taskParts));
+    }
+
     LocalDateTime getStartTime() {
         return startTime;
     }
@@ -46,13 +52,29 @@ public class WorkPeriod implements Comparable<WorkPeriod>, Splittable<WorkPeriod
 
     @Override
     public String toString() {
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofLocalizedTime(FormatStyle.SHORT);
-        String workPeriodHeader = "\n\tWork Period: " + timeFormatter.format(startTime) + " to " + timeFormatter.format(endTime);
-        StringBuilder sb = new StringBuilder(workPeriodHeader);
+        return appendTo(new StringBuilder()).toString();
+    }
+
+    StringBuilder appendTo(StringBuilder sb) {
+        return appendTo(sb, startTime, endTime);
+    }
+
+    // as if the period ran from start to end; for a slice of it
+    StringBuilder appendTo(StringBuilder sb, LocalDateTime start, LocalDateTime end) {
+        appendTimesTo(sb, start, end);
         for (TaskPart t : taskParts) {
-            sb.append("\n\t\t").append(t);
+            t.appendTo(sb.append("\n\t\t"));
         }
-        return sb.toString();
+        return sb;
+    }
+
+    StringBuilder appendTimesTo(StringBuilder sb, LocalDateTime start, LocalDateTime end) {
+        DateTimeFormatter timeFormatter = Utils.shortTimeFormatter();
+        sb.append("\n\tWork Period: ");
+        timeFormatter.formatTo(start, sb);
+        sb.append(" to ");
+        timeFormatter.formatTo(end, sb);
+        return sb;
     }
 
     List<TaskPart> getTaskParts() {
@@ -70,9 +92,9 @@ public class WorkPeriod implements Comparable<WorkPeriod>, Splittable<WorkPeriod
         if (currentTaskPart != null) {
             // not worth switching to a new task for just a few minutes
             if (available.compareTo(WorkPeriod.MINIMUM_DURATION) >= 0) {
-                TaskPart tp2 = currentTaskPart.split(available);
-                addTaskPart(currentTaskPart);
-                taskParts.offerFirst(tp2);
+                List<TaskPart> split = currentTaskPart.split(available);
+                addTaskPart(split.get(0));
+                taskParts.offerFirst(split.get(1));
             } else {
                 taskParts.offerFirst(currentTaskPart);
             }
@@ -84,12 +106,10 @@ public class WorkPeriod implements Comparable<WorkPeriod>, Splittable<WorkPeriod
     }
 
     Duration getEffectiveDuration(LocalDateTime scheduleStart, ZoneId zoneId) {
-        ZonedDateTime wpStartZdt = ZonedDateTime.of(startTime, zoneId);
-        ZonedDateTime scheduleStartZdt = ZonedDateTime.of(scheduleStart, zoneId);
-        ZonedDateTime effectiveStartTime = wpStartZdt.isAfter(scheduleStartZdt) ? wpStartZdt : scheduleStartZdt;
-
-        ZonedDateTime endZdt = ZonedDateTime.of(endTime, zoneId);
-        return Duration.between(effectiveStartTime, endZdt);
+        // the same as comparing and subtracting ZonedDateTimes in zoneId, without creating them
+        ZoneOffsetCache offsets = ZoneOffsetCache.of(zoneId);
+        LocalDateTime effectiveStartTime = offsets.compareInstants(startTime, scheduleStart) > 0 ? startTime : scheduleStart;
+        return offsets.between(effectiveStartTime, endTime);
     }
 
     void addTaskPart(TaskPart taskPart) {
@@ -131,24 +151,26 @@ public class WorkPeriod implements Comparable<WorkPeriod>, Splittable<WorkPeriod
         } else {
             WorkPeriod first = WorkPeriod.of(startTime, splitTime);
             Duration available = first.getEffectiveDuration(ZoneOffset.UTC);
-            List<TaskPart> taskParts = new ArrayList<>(getTaskParts());
-            TaskPart currentTaskPart = taskParts.remove(0);
-            while (currentTaskPart != null && available.compareTo(currentTaskPart.getDuration()) >= 0) {
-                first.addTaskPart(currentTaskPart);
-                available = available.minus(currentTaskPart.getDuration());
-                currentTaskPart = taskParts.isEmpty() ? null : taskParts.remove(0);
+            // walks the parts by index and copies the rest once, rather than removing them one at a time
+            int next = 0;
+            while (next < taskParts.size() && available.compareTo(taskParts.get(next).getDuration()) >= 0) {
+                first.addTaskPart(taskParts.get(next));
+                available = available.minus(taskParts.get(next).getDuration());
+                next++;
             }
-            if (currentTaskPart != null) {
+            List<TaskPart> rest = new ArrayList<>(taskParts.size() - next);
+            if (next < taskParts.size()) {
                 // there isn't room for the whole of the current task part in the first split
                 if (! available.isZero()) {
-                    TaskPart tp2 = currentTaskPart.split(available);
-                    first.addTaskPart(currentTaskPart);
-                    taskParts.add(0, tp2);
+                    List<TaskPart> split = taskParts.get(next).split(available);
+                    first.addTaskPart(split.get(0));
+                    rest.add(split.get(1));
                 } else {
-                    taskParts.add(0, currentTaskPart);
+                    rest.add(taskParts.get(next));
                 }
+                rest.addAll(taskParts.subList(next + 1, taskParts.size()));
             }
-            WorkPeriod second = WorkPeriod.of(splitTime, endTime, taskParts);
+            WorkPeriod second = WorkPeriod.of(splitTime, endTime, rest);
             return Arrays.asList(first, second);
         }
     }
@@ -1,16 +1,13 @@
+package scheduler;
+
 import java.time.*;
-import java.time.temporal.TemporalAdjuster;
-import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 import java.util.stream.Stream;
 
-import static java.time.DayOfWeek.*;
-import static java.time.temporal.ChronoUnit.DAYS;
-import static java.util.stream.Collectors.toList;
-
 public class WorkPeriods {
 
-    // fixed (9 - 5:30) work schedule used for simplicity in presentation
+    // fixed (9 - 5:30) work schedule used for simplicity in presentation; WorkPattern.standard() is built from
+    // it, and WorkPattern.of makes others
     public static final LocalTime AM_START_TIME = LocalTime.of(9, 0);
     public static final LocalTime PM_START_TIME = LocalTime.of(13, 30);
     public static final Duration WORK_PERIOD_LENGTH = Duration.ofHours(3).plusMinutes(30);
@@ -27,24 +24,12 @@ public class WorkPeriods {
     }
 
     public static List<WorkPeriod> generateWorkPeriods(LocalDate startDate, int dayCount) {
-        List<LocalDate> workingDays = Utils.generateWorkingDays(startDate, dayCount);
-        return generateWorkPeriods(workingDays);
+        return WorkPattern.standard().workPeriods(startDate, dayCount);
     }
 
-    private static List<WorkPeriod> generateWorkPeriods(List<LocalDate> workingDays) {
-        return workingDays.stream()
-                .flatMap(d -> Stream.of(createMorningWorkPeriod(d),createAfternoonWorkPeriod(d)))
-                .collect(toList());
-    }
-
-    private final static TemporalAdjuster nextWorkingDayAdjuster =
-            d -> DayOfWeek.from(d) != FRIDAY
-                    ? d.plus(1, DAYS)
-                    : d.with(TemporalAdjusters.next(MONDAY));
-
-    private static boolean isWorkingDay(LocalDate d) {
-        DayOfWeek dayOfWeek = d.getDayOfWeek();
-        return ! (dayOfWeek == SATURDAY || dayOfWeek == SUNDAY);
+    // unbounded and lazy, suitable as a SchedulerCalendar work period generator
+    public static Stream<WorkPeriod> workPeriodsFrom(LocalDate startDate) {
+        return WorkPattern.standard().workPeriodsFrom(startDate);
     }
 
     public static void main(String[] args) {
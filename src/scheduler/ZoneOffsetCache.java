@@ -0,0 +1,144 @@
+package scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// The offset transitions of one zone over a bounded window of time. Inside the window, conversions
+// between instants and local date-times (both as epoch seconds) are a binary search over a handful of
+// transitions instead of a ZoneRules lookup; outside it the zone rules are consulted as usual.
+//
+// ZoneOffsetCache.of(zone) returns a shared cache per zone covering 1900 to 2400, which the ZoneId-taking
+// methods of WorkPeriod and Event use; Timeline builds its own for the exact window of its calendar.
+final class ZoneOffsetCache {
+
+    private static final long SHARED_WINDOW_START = LocalDateTime.of(1900, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final long SHARED_WINDOW_END = LocalDateTime.of(2400, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+    private static final ConcurrentMap<ZoneId, ZoneOffsetCache> SHARED = new ConcurrentHashMap<>();
+
+    // local times are at most 18 hours away from their instant, so this padding keeps the
+    // transitions for every local time near the window edges inside the cached range
+    private static final long PADDING_SECONDS = 2 * 24 * 60 * 60;
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final long windowStart;           // epoch second, inclusive
+    private final long windowEnd;             // epoch second, exclusive
+    private final int initialOffset;          // offset in force at windowStart, in seconds
+    private final long[] transitionInstants;  // epoch second of each transition
+    private final long[] transitionLocals;    // first local epoch second unambiguously after each transition
+    private final int[] offsetsAfter;         // offset in seconds after each transition
+
+    ZoneOffsetCache(ZoneId zone, long fromEpochSecond, long toEpochSecond) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.windowStart = fromEpochSecond - PADDING_SECONDS;
+        this.windowEnd = toEpochSecond + PADDING_SECONDS;
+        this.initialOffset = rules.getOffset(Instant.ofEpochSecond(windowStart)).getTotalSeconds();
+
+        List<ZoneOffsetTransition> transitions = new ArrayList<>();
+        if (!rules.isFixedOffset()) {
+            ZoneOffsetTransition t = rules.nextTransition(Instant.ofEpochSecond(windowStart));
+            while (t != null && t.toEpochSecond() < windowEnd) {
+                transitions.add(t);
+                t = rules.nextTransition(t.getInstant());
+            }
+        }
+        transitionInstants = new long[transitions.size()];
+        transitionLocals = new long[transitions.size()];
+        offsetsAfter = new int[transitions.size()];
+        for (int i = 0; i < transitions.size(); i++) {
+            ZoneOffsetTransition t = transitions.get(i);
+            int before = t.getOffsetBefore().getTotalSeconds();
+            int after = t.getOffsetAfter().getTotalSeconds();
+            transitionInstants[i] = t.toEpochSecond();
+            // local times in a gap or an overlap resolve to the offset before the transition
+            transitionLocals[i] = t.toEpochSecond() + Math.max(before, after);
+            offsetsAfter[i] = after;
+        }
+    }
+
+    static ZoneOffsetCache of(ZoneId zone) {
+        ZoneOffsetCache cache = SHARED.get(zone);
+        return cache != null ? cache : SHARED.computeIfAbsent(zone, z -> new ZoneOffsetCache(z, SHARED_WINDOW_START, SHARED_WINDOW_END));
+    }
+
+    ZoneId getZone() {
+        return zone;
+    }
+
+    // Equivalent to zonedDateTime.withZoneSameInstant(zone).toLocalDateTime()
+    LocalDateTime toLocalDateTime(ZonedDateTime zonedDateTime) {
+        long local = toLocalEpochSecond(zonedDateTime.toEpochSecond());
+        return LocalDateTime.ofEpochSecond(local, zonedDateTime.getNano(), ZoneOffset.UTC);
+    }
+
+    // Equivalent to ZonedDateTime.of(localDateTime, zone).toEpochSecond()
+    long toEpochSecond(LocalDateTime localDateTime) {
+        long local = localDateTime.toEpochSecond(ZoneOffset.UTC);
+        if (!inLocalWindow(local)) {
+            return ZonedDateTime.of(localDateTime, zone).toEpochSecond();
+        }
+        int i = floorIndex(transitionLocals, local);
+        return local - (i < 0 ? initialOffset : offsetsAfter[i]);
+    }
+
+    // Equivalent to Duration.between(ZonedDateTime.of(start, zone), ZonedDateTime.of(end, zone))
+    Duration between(LocalDateTime start, LocalDateTime end) {
+        return Duration.ofSeconds(toEpochSecond(end) - toEpochSecond(start), end.getNano() - start.getNano());
+    }
+
+    // Equivalent to comparing ZonedDateTime.of(first, zone) and ZonedDateTime.of(second, zone) by instant
+    int compareInstants(LocalDateTime first, LocalDateTime second) {
+        int bySecond = Long.compare(toEpochSecond(first), toEpochSecond(second));
+        return bySecond != 0 ? bySecond : Integer.compare(first.getNano(), second.getNano());
+    }
+
+    // Equivalent to Instant.ofEpochSecond(epochSecond).atZone(zone).toLocalDateTime(), as epoch seconds
+    long toLocalEpochSecond(long epochSecond) {
+        if (epochSecond < windowStart || epochSecond >= windowEnd) {
+            return epochSecond + rules.getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        }
+        int i = floorIndex(transitionInstants, epochSecond);
+        return epochSecond + (i < 0 ? initialOffset : offsetsAfter[i]);
+    }
+
+    // Equivalent to ZonedDateTime.of(localDateTime, zone).toEpochSecond(): a local time in a gap is moved
+    // later by the length of the gap, and one in an overlap takes the earlier offset
+    long toEpochSecond(long localEpochSecond) {
+        if (!inLocalWindow(localEpochSecond)) {
+            LocalDateTime ldt = LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC);
+            return ZonedDateTime.of(ldt, zone).toEpochSecond();
+        }
+        int i = floorIndex(transitionLocals, localEpochSecond);
+        return localEpochSecond - (i < 0 ? initialOffset : offsetsAfter[i]);
+    }
+
+    private boolean inLocalWindow(long localEpochSecond) {
+        return localEpochSecond >= windowStart + PADDING_SECONDS / 2 && localEpochSecond < windowEnd - PADDING_SECONDS / 2;
+    }
+
+    // index of the last element not greater than key, or -1 if there is none
+    private static int floorIndex(long[] sorted, long key) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+}
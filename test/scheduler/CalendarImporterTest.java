@@ -0,0 +1,196 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CalendarImporterTest {
+
+    static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    @Test
+    void readsCsv() throws IOException {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        CalendarImporter.Summary summary = importText(calendar, CalendarImporter.Format.CSV,
+                "# a comment\n"
+                        + "period,2021-01-04T09:00,2021-01-04T12:30\r\n"
+                        + "\n"
+                        + "event,2021-01-04T11:00:15.5,Europe/London,PT30M,design review, again\n"
+                        + "task,P1DT2H30M15.25S,\"write \"\"the\"\" report, quickly\"\n"
+                        + "task,PT45M\n");
+
+        assertEquals(6, summary.getLines());
+        assertEquals(1, summary.getPeriodsAdded());
+        assertEquals(1, summary.getEventsAdded());
+        assertEquals(2, summary.getTasksAdded());
+        assertTrue(summary.isClean());
+        assertEquals(WorkPeriod.of(LocalDateTime.of(2021, 1, 4, 9, 0), LocalDateTime.of(2021, 1, 4, 12, 30)),
+                calendar.getWorkPeriods().first());
+        Event event = calendar.getEvents().first();
+        assertEquals(ZonedDateTime.of(2021, 1, 4, 11, 0, 15, 500_000_000, LONDON), event.getStartTime());
+        assertEquals(Duration.ofMinutes(30), Duration.between(event.getStartTime(), event.getEndTime()));
+        assertEquals("design review, again", event.getDescription());
+        Task report = calendar.getTasks().get(0);
+        assertEquals("write \"the\" report, quickly", report.getDescription());
+        assertEquals(Duration.ofDays(1).plusHours(2).plusMinutes(30).plusSeconds(15).plusMillis(250), report.getDuration());
+        assertEquals("", calendar.getTasks().get(1).getDescription());
+    }
+
+    @Test
+    void readsNdjson() throws IOException {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        CalendarImporter.Summary summary = importText(calendar, CalendarImporter.Format.NDJSON,
+                "{\"type\":\"period\",\"start\":\"2021-01-04T09:00\",\"end\":\"2021-01-04T12:30\"}\n"
+                        + "{ \"start\" : \"2021-01-04T11:00:30\", \"type\":\"event\", \"id\": 17, \"zone\":\"Europe/London\","
+                        + " \"duration\":\"PT30M\", \"description\":\"caf\\u00e9 \\\"chat\\\"\\nline two\" }\n"
+                        + "{\"type\":\"task\",\"duration\":\"PT2H\",\"description\":\"a\\\\b\",\"done\":false}\n");
+
+        assertEquals(3, summary.getLines());
+        assertEquals(1, summary.getPeriodsAdded());
+        assertEquals(1, summary.getEventsAdded());
+        assertEquals(1, summary.getTasksAdded());
+        Event event = calendar.getEvents().first();
+        assertEquals(ZonedDateTime.of(2021, 1, 4, 11, 0, 30, 0, LONDON), event.getStartTime());
+        assertEquals("café \"chat\"\nline two", event.getDescription());
+        assertEquals("a\\b", calendar.getTasks().get(0).getDescription());
+        assertEquals(Duration.ofHours(2), calendar.getTasks().get(0).getDuration());
+    }
+
+    // a channel that hands over a few bytes at a time splits lines, and multi-byte characters, across reads
+    @Test
+    void readsLinesSplitAcrossReads() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            LocalDate day = LocalDate.of(2021, 1, 4).plusDays(i);
+            text.append("period,").append(day.atTime(9, 0)).append(',').append(day.atTime(17, 0)).append('\n');
+            text.append("event,").append(day.atTime(11, 0)).append(",Europe/London,PT15M,stand-up ☕ ").append(i).append('\n');
+            text.append("task,PT").append(10 + i).append("M,task ").append(i).append('\n');
+        }
+        for (int chunk : new int[]{1, 7, 64}) {
+            SchedulerCalendar calendar = new SchedulerCalendar();
+            CalendarImporter.Summary summary = new CalendarImporter(calendar).setBatchSize(33)
+                    .importFrom(trickle(text.toString(), chunk), CalendarImporter.Format.CSV);
+
+            assertEquals(600, summary.getLines());
+            assertEquals(200, calendar.getWorkPeriods().size());
+            assertEquals(200, calendar.getEvents().size());
+            assertEquals(200, calendar.getTasks().size());
+            assertEquals("stand-up ☕ 199", calendar.getEvents().last().getDescription());
+            assertEquals("task 0", calendar.getTasks().get(0).getDescription());
+            assertEquals(Duration.ofMinutes(209), calendar.getTasks().get(199).getDuration());
+        }
+    }
+
+    @Test
+    void rejectsLineLongerThanBuffer() {
+        String text = "task,PT1H,ok\ntask,PT1H," + "x".repeat(1 << 20) + "\n";
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importText(new SchedulerCalendar(), CalendarImporter.Format.CSV, text));
+        assertTrue(e.getMessage().startsWith("Line 2:"), e.getMessage());
+    }
+
+    // lines are counted with blank lines and comments, and the batches before a bad line stay loaded
+    @Test
+    void reportsTheNumberOfABadLine() {
+        assertBadLine(4, CalendarImporter.Format.CSV,
+                "task,PT1H,a\n# comment\n\nperiod,2021-01-04 09:00,2021-01-04T12:00\n");
+        assertBadLine(3, CalendarImporter.Format.CSV,
+                "task,PT1H,a\n\nperiod,2021-01-04T09:00,2021-01-04T12:0\n");
+        assertBadLine(2, CalendarImporter.Format.CSV,
+                "period,2021-01-04T09:00,2021-01-04T12:00\nevent,2021-01-04T11:00,Europe/London,PT30,review\n");
+        assertBadLine(2, CalendarImporter.Format.CSV, "task,PT1H\ntask,PT1.5M,fractional minutes\n");
+        assertBadLine(1, CalendarImporter.Format.CSV, "task,1H,no P\n");
+        assertBadLine(1, CalendarImporter.Format.CSV, "task,PT1H,\"unterminated\n");
+        assertBadLine(1, CalendarImporter.Format.CSV, "meeting,PT1H\n");
+        assertBadLine(3, CalendarImporter.Format.NDJSON,
+                "{\"type\":\"task\",\"duration\":\"PT1H\"}\n\n{\"type\":\"task\",\"duration\":\"P1H\"}\n");
+        assertBadLine(1, CalendarImporter.Format.NDJSON,
+                "{\"type\":\"period\",\"start\":\"2021-13-04T09:00\",\"end\":\"2021-01-04T12:00\"}\n");
+        assertBadLine(1, CalendarImporter.Format.NDJSON, "{\"type\":\"task\",\"description\":\"no duration\"}\n");
+        assertBadLine(2, CalendarImporter.Format.NDJSON, "{\"type\":\"task\",\"duration\":\"PT1H\"}\n{\"type\":\"task\"\n");
+    }
+
+    private static void assertBadLine(int line, CalendarImporter.Format format, String text) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> importText(new SchedulerCalendar(), format, text));
+        assertTrue(e.getMessage().startsWith("Line " + line + ":"), e.getMessage());
+    }
+
+    // what load() turns away in each batch is given to the listener and counted in the summary
+    @Test
+    void countsConflictsAsLoadReportsThem() throws IOException {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriod(WorkPeriod.of(LocalDateTime.of(2021, 1, 4, 9, 0), LocalDateTime.of(2021, 1, 4, 12, 0)));
+        String text = "period,2021-01-04T11:00,2021-01-04T13:00\n"        // overlaps the calendar's
+                + "period,2021-01-05T09:00,2021-01-05T12:00\n"
+                + "event,2021-01-05T10:00,Europe/London,PT1H,review\n"
+                + "period,2021-01-05T11:00,2021-01-05T14:00\n"           // overlaps the one before, another batch
+                + "event,2021-01-05T10:00,UTC,PT30M,same instant\n"
+                + "task,PT1H,report\n"
+                + "period,2021-01-06T09:00,2021-01-06T12:00\n";
+        List<LoadReport> reports = new ArrayList<>();
+        CalendarImporter.Summary summary = new CalendarImporter(calendar).setBatchSize(3).setReportListener(reports::add)
+                .importFrom(channel(text), CalendarImporter.Format.CSV);
+
+        assertEquals(2, reports.size());
+        assertEquals(reports.stream().mapToLong(LoadReport::getPeriodsAdded).sum(), summary.getPeriodsAdded());
+        assertEquals(reports.stream().mapToLong(LoadReport::getEventsAdded).sum(), summary.getEventsAdded());
+        assertEquals(reports.stream().mapToLong(r -> r.getPeriodConflicts().size()).sum(), summary.getPeriodConflicts());
+        assertEquals(reports.stream().mapToLong(r -> r.getEventConflicts().size()).sum(), summary.getEventConflicts());
+        assertEquals(2, summary.getPeriodsAdded());
+        assertEquals(2, summary.getPeriodConflicts());
+        assertEquals(1, summary.getEventsAdded());
+        assertEquals(1, summary.getEventConflicts());
+        assertEquals(1, summary.getTasksAdded());
+        assertFalse(summary.isClean());
+        assertEquals(3, calendar.getWorkPeriods().size());
+        assertEquals("review", calendar.getEvents().first().getDescription());
+    }
+
+    private static CalendarImporter.Summary importText(SchedulerCalendar calendar, CalendarImporter.Format format, String text)
+            throws IOException {
+        return new CalendarImporter(calendar).importFrom(channel(text), format);
+    }
+
+    private static ReadableByteChannel channel(String text) {
+        return Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // hands over at most chunk bytes a read
+    private static ReadableByteChannel trickle(String text, int chunk) {
+        ByteBuffer source = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer dst) {
+                if (!source.hasRemaining()) {
+                    return -1;
+                }
+                int n = Math.min(chunk, Math.min(dst.remaining(), source.remaining()));
+                ByteBuffer slice = source.slice();
+                slice.limit(n);
+                dst.put(slice);
+                source.position(source.position() + n);
+                return n;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
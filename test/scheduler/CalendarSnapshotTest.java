@@ -0,0 +1,91 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static scheduler.TimelineTest.dump;
+
+class CalendarSnapshotTest {
+
+    static final ZoneId LONDON = ZoneId.of("Europe/London");
+    static final LocalDate MONDAY = LocalDate.of(2021, 1, 4);
+
+    @TempDir
+    Path directory;
+
+    // tasks keep their constraints, and the schedule its start and the tasks it had no time for
+    @Test
+    void savesCalendarAndSchedule() throws IOException {
+        SchedulerCalendar calendar = calendar();
+        Schedule schedule = calendar.createSchedule(MONDAY, LONDON);
+        assertFalse(schedule.getInfeasibleTasks().isEmpty());
+        Path file = directory.resolve("calendar.scal");
+        CalendarSnapshot.write(file, calendar, schedule);
+
+        CalendarSnapshot snapshot = CalendarSnapshot.open(file);
+
+        assertEquals(calendar.getWorkPeriods().size(), snapshot.getWorkPeriodCount());
+        assertEquals(calendar.getEvents().size(), snapshot.getEventCount());
+        for (int i = 0; i < snapshot.getTaskCount(); i++) {
+            Task saved = calendar.getTasks().get(i);
+            Task read = snapshot.getTask(i);
+            assertEquals(saved.getDescription(), read.getDescription());
+            assertEquals(saved.getDuration(), read.getDuration());
+            assertEquals(saved.getEarliestStart(), read.getEarliestStart());
+            assertEquals(saved.getDeadline(), read.getDeadline());
+            assertEquals(saved.getMinimumPart(), read.getMinimumPart());
+        }
+        Schedule read = snapshot.getSchedule();
+        assertEquals(dump(schedule), dump(read));
+        assertEquals(schedule.getScheduleStart(), read.getScheduleStart());
+        assertEquals(schedule.getInfeasibleTasks().size(), read.getInfeasibleTasks().size());
+        assertEquals(schedule.getInfeasibleTasks().get(0).getScheduled(), read.getInfeasibleTasks().get(0).getScheduled());
+    }
+
+    // the restored schedule keeps the events it was read with when the restored calendar changes
+    @Test
+    void scheduleDoesNotShareTheCalendarsEvents() throws IOException {
+        SchedulerCalendar calendar = calendar();
+        Path file = directory.resolve("calendar.scal");
+        CalendarSnapshot.write(file, calendar, calendar.createSchedule(MONDAY, LONDON));
+        CalendarSnapshot snapshot = CalendarSnapshot.open(file);
+
+        Schedule read = snapshot.getSchedule();
+        snapshot.getCalendar().addEvent(ZonedDateTime.of(MONDAY.atTime(15, 0), LONDON), Duration.ofHours(1), "review");
+
+        assertEquals(1, read.getEvents().size());
+        assertEquals(2, snapshot.getCalendar().getEvents().size());
+        Schedule after = snapshot.getCalendar().createSchedule(MONDAY, LONDON);
+        assertEquals(1, read.diff(after).getChanges().stream().filter(c -> c.getKind() == ScheduleDiff.Kind.EVENT_ADDED).count());
+    }
+
+    @Test
+    void rejectsOtherVersions() throws IOException {
+        Path file = directory.resolve("future.scal");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x5343414C);
+            out.writeInt(2);
+            for (int i = 0; i < 5; i++) {
+                out.writeInt(0);
+            }
+        }
+        assertThrows(IOException.class, () -> CalendarSnapshot.open(file));
+    }
+
+    static SchedulerCalendar calendar() {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriods(WorkPeriods.generateWorkPeriods(MONDAY, 2));
+        calendar.addEvent(ZonedDateTime.of(MONDAY.atTime(11, 0), LONDON), Duration.ofMinutes(30), "standup");
+        calendar.addTask(new Task(2, 0, "report").withDeadline(MONDAY.plusDays(1).atTime(17, 0)));
+        calendar.addTask(new Task(1, 30, "review").withEarliestStart(MONDAY.atTime(13, 0)).withMinimumPart(Duration.ofMinutes(45)));
+        calendar.addTask(new Task(40, 0, "migration"));
+        return calendar;
+    }
+}
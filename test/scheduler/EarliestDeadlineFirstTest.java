@@ -0,0 +1,151 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EarliestDeadlineFirstTest {
+
+    static final ZoneId LONDON = ZoneId.of("Europe/London");
+    static final LocalDate MONDAY = LocalDate.of(2021, 1, 4);
+
+    // the quarter of an hour left after the first task is too short for the next by deadline, but not for
+    // the one after it
+    @Test
+    void worksOnTheNextTaskThatFits() {
+        SchedulerCalendar calendar = new SchedulerCalendar().setSchedulingStrategy(SchedulingStrategy.earliestDeadlineFirst());
+        calendar.addWorkPeriod(WorkPeriod.of(MONDAY.atTime(9, 0), MONDAY.atTime(10, 0)));
+        calendar.addWorkPeriod(WorkPeriod.of(MONDAY.plusDays(1).atTime(9, 0), MONDAY.plusDays(1).atTime(12, 0)));
+        Task first = new Task(45, "first").withDeadline(MONDAY.atTime(10, 0));
+        Task large = new Task(2, 0, "large").withDeadline(MONDAY.plusDays(1).atTime(12, 0)).withMinimumPart(Duration.ofMinutes(30));
+        Task small = new Task(10, "small").withDeadline(MONDAY.plusDays(2).atTime(12, 0));
+        calendar.addTask(first).addTask(large).addTask(small);
+
+        Schedule schedule = calendar.createSchedule(MONDAY, LONDON);
+
+        assertTrue(schedule.isSuccessful());
+        assertEquals(MONDAY.atTime(9, 0), start(schedule, first));
+        assertEquals(MONDAY.atTime(9, 45), start(schedule, small));
+        assertEquals(MONDAY.plusDays(1).atTime(9, 0), start(schedule, large));
+    }
+
+    // with nothing constraining it, EDF places everything that greedy does
+    @Test
+    void succeedsWhereGreedyDoes() {
+        Random random = new Random(15);
+        for (int iteration = 0; iteration < 100; iteration++) {
+            SchedulerCalendar greedy = new SchedulerCalendar();
+            SchedulerCalendar edf = new SchedulerCalendar().setSchedulingStrategy(SchedulingStrategy.earliestDeadlineFirst());
+            List<WorkPeriod> periods = WorkPeriods.generateWorkPeriods(MONDAY, 10);
+            greedy.addWorkPeriods(periods);
+            edf.addWorkPeriods(periods);
+            for (int i = 0; i < 15; i++) {
+                Task t = new Task(30 + random.nextInt(200), "task " + i);
+                greedy.addTask(t);
+                edf.addTask(t);
+            }
+            if (greedy.createSchedule(MONDAY, LONDON).isSuccessful()) {
+                assertTrue(edf.createSchedule(MONDAY, LONDON).isSuccessful(), "iteration " + iteration);
+            }
+        }
+    }
+
+    // every part is placed in free time, between its task's earliest start and deadline, no shorter than its
+    // minimum unless it finishes the task, and what was not placed is reported
+    @Test
+    void keepsToTheWindows() {
+        Random random = new Random(5);
+        for (int iteration = 0; iteration < 300; iteration++) {
+            ZoneId zone = ZoneId.of(iteration % 2 == 0 ? "Europe/London" : "UTC");
+            LocalDate start = LocalDate.of(2021, 3, 1).plusDays(random.nextInt(60));
+            int days = 1 + random.nextInt(20);
+            SchedulerCalendar calendar = new SchedulerCalendar().setSchedulingStrategy(SchedulingStrategy.earliestDeadlineFirst());
+            calendar.addWorkPeriods(WorkPeriods.generateWorkPeriods(start, days));
+            int events = random.nextInt(days * 2 + 1);
+            for (int i = 0; i < events; i++) {
+                LocalDateTime at = start.plusDays(random.nextInt(days + 2)).atTime(8 + random.nextInt(9), random.nextInt(60));
+                calendar.addEvent(Event.of(ZonedDateTime.of(at, zone), Duration.ofMinutes(10 + random.nextInt(120)), "event " + i));
+            }
+            LocalDateTime scheduleStart = start.atTime(random.nextInt(15), 0);
+            List<Task> tasks = new ArrayList<>();
+            int n = random.nextInt(days * 4 + 2);
+            for (int i = 0; i < n; i++) {
+                Task t = new Task(10 + random.nextInt(300), "task " + i);
+                if (random.nextInt(3) > 0) {
+                    t = t.withDeadline(start.plusDays(random.nextInt(days + 5)).atTime(random.nextInt(24), random.nextInt(60)));
+                }
+                if (random.nextInt(3) == 0) {
+                    LocalDateTime earliest = start.plusDays(random.nextInt(days)).atTime(random.nextInt(24), random.nextInt(60));
+                    if (t.getDeadline() == null || t.getDeadline().isAfter(earliest)) {
+                        t = t.withEarliestStart(earliest);
+                    }
+                }
+                if (random.nextInt(4) == 0) {
+                    t = t.withMinimumPart(Duration.ofMinutes(1 + random.nextInt(60)));
+                }
+                tasks.add(t);
+                calendar.addTask(t);
+            }
+
+            Schedule schedule = calendar.createSchedule(scheduleStart, zone);
+
+            String where = "iteration " + iteration;
+            long free = 0;
+            for (WorkPeriod p : calendar.overwritePeriodsWithEvents(zone)) {
+                free += seconds(p.getEndTime(), zone) - seconds(p.getStartTime(), zone);
+            }
+            Map<Task, Long> placed = new IdentityHashMap<>();
+            long scheduled = 0;
+            long previousEnd = Long.MIN_VALUE;
+            for (WorkPeriod p : schedule.getScheduledPeriods()) {
+                long periodStart = seconds(p.getStartTime(), zone);
+                long periodEnd = seconds(p.getEndTime(), zone);
+                assertTrue(periodStart >= previousEnd, where);
+                previousEnd = periodEnd;
+                scheduled += periodEnd - periodStart;
+                long t = Math.max(periodStart, seconds(scheduleStart, zone));
+                for (TaskPart tp : p.getTaskParts()) {
+                    Task task = tp.getOwner();
+                    long d = tp.getDuration().getSeconds();
+                    assertTrue(task.getEarliestStart() == null || t >= seconds(task.getEarliestStart(), zone), where);
+                    assertTrue(task.getDeadline() == null || t + d <= seconds(task.getDeadline(), zone), where);
+                    long before = placed.getOrDefault(task, 0L);
+                    assertTrue(d >= task.getMinimumPart().getSeconds() || before + d == task.getDuration().getSeconds(), where);
+                    placed.put(task, before + d);
+                    t += d;
+                }
+                assertTrue(p.getTaskParts().isEmpty() || t <= periodEnd, where);
+            }
+            assertEquals(free, scheduled, where);
+            Set<Task> reported = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (InfeasibleTask it : schedule.getInfeasibleTasks()) {
+                reported.add(it.getTask());
+                assertEquals(placed.getOrDefault(it.getTask(), 0L), it.getScheduled().getSeconds(), where);
+            }
+            for (Task t : tasks) {
+                assertTrue(reported.contains(t) || placed.getOrDefault(t, 0L) == t.getDuration().getSeconds(), where);
+            }
+            assertEquals(reported.isEmpty(), schedule.isSuccessful(), where);
+        }
+    }
+
+    private static long seconds(LocalDateTime time, ZoneId zone) {
+        return ZonedDateTime.of(time, zone).toEpochSecond();
+    }
+
+    private static LocalDateTime start(Schedule schedule, Task task) {
+        for (WorkPeriod p : schedule.getScheduledPeriods()) {
+            LocalDateTime t = p.getStartTime();
+            for (TaskPart tp : p.getTaskParts()) {
+                if (tp.getOwner() == task) {
+                    return t;
+                }
+                t = t.plus(tp.getDuration());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static scheduler.TimelineTest.ZONES;
+import static scheduler.TimelineTest.dump;
+
+// Rescheduling after events are added and tasks appended must give what scheduling from scratch would
+class RescheduleTest {
+
+    @Test
+    void matchesFreshScheduleAroundMarch() {
+        assertSameSchedules(LocalDateTime.of(2021, 3, 20, 0, 0));
+    }
+
+    @Test
+    void matchesFreshScheduleAroundOctober() {
+        assertSameSchedules(LocalDateTime.of(2020, 10, 20, 0, 0));
+    }
+
+    // tasks appended in bulk are one change to the calendar, which the timeline follows as it would each task
+    @Test
+    void followsTasksAddedInBulk() {
+        ZoneId zone = ZoneId.of("Europe/London");
+        LocalDate monday = LocalDate.of(2021, 1, 4);
+        SchedulerCalendar incremental = new SchedulerCalendar();
+        SchedulerCalendar fresh = new SchedulerCalendar();
+        incremental.addWorkPeriods(WorkPeriods.generateWorkPeriods(monday, 10));
+        fresh.addWorkPeriods(WorkPeriods.generateWorkPeriods(monday, 10));
+        incremental.addTask("first", 3, 0);
+        fresh.addTask("first", 3, 0);
+        incremental.reschedule(monday.atStartOfDay(), zone);
+
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            tasks.add(new Task(30 + (i * 37) % 180, "task " + i));
+        }
+        long revision = incremental.getRevision();
+        incremental.addTasks(tasks);
+        tasks.forEach(fresh::addTask);
+
+        assertEquals(revision + 1, incremental.getRevision());
+        assertEquals(dump(fresh.createTimelineSchedule(monday.atStartOfDay(), zone)),
+                dump(incremental.reschedule(monday.atStartOfDay(), zone)));
+    }
+
+    private static void assertSameSchedules(LocalDateTime from) {
+        for (long seed = 0; seed < 1000; seed++) {
+            Random random = new Random(seed);
+            ZoneId zone = ZoneId.of(ZONES[(int) (seed % ZONES.length)]);
+            List<WorkPeriod> periods = new ArrayList<>();
+            LocalDateTime t = from.plusMinutes(random.nextInt(60 * 24 * 30));
+            int n = random.nextInt(40);
+            for (int i = 0; i < n; i++) {
+                t = t.plusMinutes(1 + random.nextInt(60 * 20));
+                LocalDateTime end = t.plusMinutes(10 + random.nextInt(60 * 12));
+                periods.add(WorkPeriod.of(t, end));
+                t = end;
+            }
+            // events and tasks, in an order of their own
+            List<Object> changes = new ArrayList<>();
+            ZonedDateTime z = from.atZone(ZoneId.of(random.nextBoolean() ? "UTC" : "America/New_York"));
+            int events = random.nextInt(60);
+            for (int i = 0; i < events; i++) {
+                changes.add(Event.of(z.plusMinutes(random.nextInt(60 * 24 * 50)), Duration.ofMinutes(random.nextInt(600)), "event " + i));
+            }
+            int tasks = random.nextInt(30);
+            for (int i = 0; i < tasks; i++) {
+                changes.add(new Task(random.nextInt(6), random.nextInt(60), "task " + i));
+            }
+            Collections.shuffle(changes, random);
+            LocalDateTime start = from.plusMinutes(random.nextInt(60 * 24 * 30));
+
+            SchedulerCalendar incremental = new SchedulerCalendar();
+            incremental.addWorkPeriods(periods);
+            SchedulerCalendar fresh = new SchedulerCalendar();
+            for (WorkPeriod p : periods) {
+                fresh.addWorkPeriod(WorkPeriod.of(p.getStartTime(), p.getEndTime()));
+            }
+            incremental.reschedule(start, zone);
+            for (Object change : changes) {
+                if (change instanceof Event) {
+                    incremental.addEvent((Event) change);
+                    fresh.addEvent((Event) change);
+                } else {
+                    incremental.addTask((Task) change);
+                    fresh.addTask((Task) change);
+                }
+                if (random.nextInt(3) == 0) {
+                    assertEquals(dump(fresh.createTimelineSchedule(start, zone)), dump(incremental.reschedule(start, zone)), "seed " + seed);
+                }
+            }
+            assertEquals(dump(fresh.createTimelineSchedule(start, zone)), dump(incremental.reschedule(start, zone)), "seed " + seed);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleCacheTest {
+
+    static final ZoneId LONDON = ZoneId.of("Europe/London");
+    static final LocalDate MONDAY = LocalDate.of(2021, 1, 4);
+
+    // a hit hands back the same schedule, and with it the free/busy index built for it, until the calendar
+    // changes
+    @Test
+    void keepsTheFreeBusyIndexWithTheCachedSchedule() {
+        ConcurrentSchedulerCalendar calendar = new ConcurrentSchedulerCalendar();
+        calendar.update(c -> {
+            c.addWorkPeriods(WorkPeriods.generateWorkPeriods(MONDAY, 5));
+            c.addTask("report", 3, 0);
+        });
+        ScheduleCache cache = new ScheduleCache(calendar, 4);
+
+        Schedule first = cache.createSchedule(MONDAY, LONDON);
+        FreeBusyIndex index = first.freeBusyIndex();
+        assertSame(first, cache.createSchedule(MONDAY, LONDON));
+        assertSame(index, cache.createSchedule(MONDAY, LONDON).freeBusyIndex());
+        assertEquals(2, cache.getStats().getHits());
+
+        calendar.addEvent(ZonedDateTime.of(MONDAY.atTime(9, 0), LONDON), Duration.ofHours(1), "standup");
+        Schedule changed = cache.createSchedule(MONDAY, LONDON);
+        assertNotSame(first, changed);
+        assertNotSame(index, changed.freeBusyIndex());
+        ZonedDateTime after = ZonedDateTime.of(MONDAY.atTime(9, 0), LONDON);
+        assertEquals(FreeBusyIndex.of(changed).nextFreeSlot(after, Duration.ofMinutes(30)),
+                changed.freeBusyIndex().nextFreeSlot(after, Duration.ofMinutes(30)));
+    }
+}
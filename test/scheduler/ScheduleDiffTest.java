@@ -0,0 +1,61 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+// A schedule keeps the events it was made with, so one made before an event is added differs from one
+// made after it by that event
+class ScheduleDiffTest {
+
+    static final ZoneId LONDON = ZoneId.of("Europe/London");
+    static final LocalDate MONDAY = LocalDate.of(2021, 1, 4);
+
+    @Test
+    void reportsAddedAndRemovedEvents() {
+        SchedulerCalendar calendar = calendar();
+        Schedule before = calendar.createSchedule(MONDAY, LONDON);
+        Event review = Event.of(ZonedDateTime.of(MONDAY.atTime(14, 0), LONDON), Duration.ofHours(1), "review");
+        calendar.addEvent(review);
+        Schedule after = calendar.createSchedule(MONDAY, LONDON);
+
+        assertEquals(1, before.getEvents().size());
+        assertEquals(2, after.getEvents().size());
+        assertEquals(List.of(review), events(before.diff(after), ScheduleDiff.Kind.EVENT_ADDED));
+        assertEquals(List.of(review), events(after.diff(before), ScheduleDiff.Kind.EVENT_REMOVED));
+        assertTrue(before.diff(before).isEmpty());
+    }
+
+    // the incremental path hands the calendar's events to each schedule it makes too
+    @Test
+    void reportsEventsAddedBetweenReschedules() {
+        SchedulerCalendar calendar = calendar();
+        Schedule before = calendar.reschedule(MONDAY.atStartOfDay(), LONDON);
+        Event review = Event.of(ZonedDateTime.of(MONDAY.atTime(14, 0), LONDON), Duration.ofHours(1), "review");
+        calendar.addEvent(review);
+        Schedule after = calendar.reschedule(MONDAY.atStartOfDay(), LONDON);
+
+        assertEquals(1, before.getEvents().size());
+        assertEquals(List.of(review), events(before.diff(after), ScheduleDiff.Kind.EVENT_ADDED));
+        assertEquals(List.of(review), events(after.diff(before), ScheduleDiff.Kind.EVENT_REMOVED));
+    }
+
+    private static SchedulerCalendar calendar() {
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriods(WorkPeriods.generateWorkPeriods(MONDAY, 5));
+        calendar.addEvent(ZonedDateTime.of(MONDAY.atTime(11, 0), LONDON), Duration.ofMinutes(30), "standup");
+        calendar.addTask("report", 3, 0);
+        return calendar;
+    }
+
+    private static List<Event> events(ScheduleDiff diff, ScheduleDiff.Kind kind) {
+        return diff.getChanges().stream()
+                .filter(c -> c.getKind() == kind)
+                .map(ScheduleDiff.Change::getEvent)
+                .collect(toList());
+    }
+}
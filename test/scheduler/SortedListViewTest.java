@@ -0,0 +1,46 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A SortedListView must answer as a TreeSet of the same elements would
+class SortedListViewTest {
+
+    private static final List<Integer> ELEMENTS = Arrays.asList(1, 3, 5, 7, 9);
+
+    @Test
+    void subsetsMatchTreeSet() {
+        SortedSet<Integer> view = new SchedulerCalendar.SortedListView<>(ELEMENTS);
+        TreeSet<Integer> tree = new TreeSet<>(ELEMENTS);
+        for (int from = 0; from <= 10; from++) {
+            assertEquals(new ArrayList<>(tree.headSet(from)), new ArrayList<>(view.headSet(from)));
+            assertEquals(new ArrayList<>(tree.tailSet(from)), new ArrayList<>(view.tailSet(from)));
+            assertEquals(tree.contains(from), view.contains(from));
+            for (int to = from; to <= 10; to++) {
+                assertEquals(new ArrayList<>(tree.subSet(from, to)), new ArrayList<>(view.subSet(from, to)));
+            }
+        }
+        assertEquals(Arrays.asList(5, 7), new ArrayList<>(view.tailSet(4).headSet(8)));
+        assertThrows(IllegalArgumentException.class, () -> view.subSet(5, 3));
+    }
+
+    @Test
+    void emptyViewHasNoFirstOrLast() {
+        SortedSet<Integer> view = new SchedulerCalendar.SortedListView<>(Collections.emptyList());
+        assertThrows(NoSuchElementException.class, view::first);
+        assertThrows(NoSuchElementException.class, view::last);
+        assertTrue(view.headSet(3).isEmpty());
+    }
+
+    // TreeSet.addAll builds its tree from a sorted set directly
+    @Test
+    void fillsAnEmptyTreeSet() {
+        TreeSet<Integer> tree = new TreeSet<>();
+        tree.addAll(new SchedulerCalendar.SortedListView<>(ELEMENTS));
+        assertEquals(ELEMENTS, new ArrayList<>(tree));
+        assertEquals(Arrays.asList(3, 5), new ArrayList<>(tree.subSet(2, 6)));
+    }
+}
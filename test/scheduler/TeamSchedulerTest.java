@@ -0,0 +1,130 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TeamSchedulerTest {
+
+    static final ZoneId LONDON = ZoneId.of("Europe/London");
+    static final LocalDate MONDAY = LocalDate.of(2021, 1, 4);
+
+    // Alice is free first but only for an hour, and Bob from half way through it: the rest of the task waits
+    // for Alice's next period rather than going to Bob while she is still on it
+    @Test
+    void splitTaskStaysWithTheMemberWhoStartedIt() {
+        SchedulerCalendar alice = new SchedulerCalendar();
+        alice.addWorkPeriod(WorkPeriod.of(MONDAY.atTime(9, 0), MONDAY.atTime(10, 0)));
+        alice.addWorkPeriod(WorkPeriod.of(MONDAY.atTime(14, 0), MONDAY.atTime(16, 0)));
+        SchedulerCalendar bob = new SchedulerCalendar();
+        bob.addWorkPeriod(WorkPeriod.of(MONDAY.atTime(9, 30), MONDAY.atTime(12, 0)));
+        Task report = new Task(2, 0, "report");
+
+        TeamScheduler.Result result = new TeamScheduler()
+                .addMember("alice", alice, LONDON)
+                .addMember("bob", bob, LONDON)
+                .addTask(report)
+                .schedule(MONDAY.atStartOfDay(LONDON).toInstant());
+
+        assertTrue(result.isSuccessful());
+        assertEquals(Arrays.asList(MONDAY.atTime(9, 0), MONDAY.atTime(14, 0)), partStarts(result.getSchedule("alice"), report));
+        assertEquals(Collections.emptyList(), partStarts(result.getSchedule("bob"), report));
+    }
+
+    // a task a member started and had no time to finish came before those never taken from the backlog
+    @Test
+    void unfinishedTasksAreReportedToEveryMember() {
+        SchedulerCalendar alice = new SchedulerCalendar();
+        alice.addWorkPeriod(WorkPeriod.of(MONDAY.atTime(9, 0), MONDAY.atTime(10, 0)));
+        SchedulerCalendar bob = new SchedulerCalendar();
+        bob.addWorkPeriod(WorkPeriod.of(MONDAY.atTime(9, 30), MONDAY.atTime(12, 0)));
+
+        TeamScheduler.Result result = new TeamScheduler()
+                .addMember("alice", alice, LONDON)
+                .addMember("bob", bob, LONDON)
+                .addTask(new Task(2, 0, "report"))
+                .addTask(new Task(3, 20, "review"))
+                .schedule(MONDAY.atStartOfDay(LONDON).toInstant());
+
+        assertFalse(result.isSuccessful());
+        List<InfeasibleTask> infeasible = result.getInfeasibleTasks();
+        assertEquals(2, infeasible.size());
+        assertEquals("report", infeasible.get(0).getTask().getDescription());
+        assertEquals(Duration.ofHours(1), infeasible.get(0).getScheduled());
+        assertEquals("review", infeasible.get(1).getTask().getDescription());
+        for (Schedule schedule : result.getSchedules().values()) {
+            assertFalse(schedule.isSuccessful());
+            assertEquals(infeasible, schedule.getInfeasibleTasks());
+        }
+    }
+
+    @Test
+    void memberNamesAreUnique() {
+        TeamScheduler team = new TeamScheduler().addMember("alice", new SchedulerCalendar(), LONDON);
+        assertThrows(IllegalArgumentException.class, () -> team.addMember("alice", new SchedulerCalendar(), LONDON));
+    }
+
+    // in a team across zones, each task is worked on by one member, a part at a time and in order
+    @Test
+    void noTaskIsWorkedOnTwiceAtOnce() {
+        ZoneId[] zones = {LONDON, ZoneId.of("America/New_York"), ZoneId.of("Asia/Kolkata"), ZoneId.of("Australia/Sydney")};
+        TeamScheduler team = new TeamScheduler();
+        for (int i = 0; i < 1000; i++) {
+            team.addTask(new Task(30 + (i * 37) % 180, "task " + i));
+        }
+        for (int m = 0; m < 40; m++) {
+            ZoneId zone = zones[m % zones.length];
+            SchedulerCalendar calendar = new SchedulerCalendar();
+            calendar.addWorkPeriods(WorkPeriods.generateWorkPeriods(MONDAY, 130));
+            for (LocalDate d = MONDAY; d.isBefore(MONDAY.plusDays(260)); d = d.plusDays(1)) {
+                calendar.addEvent(Event.of(ZonedDateTime.of(d, LocalTime.of(11, 0), zone), Duration.ofMinutes(30), "standup"));
+            }
+            team.addMember("member " + m, calendar, zone);
+        }
+
+        TeamScheduler.Result result = team.schedule(Instant.parse("2021-01-05T13:17:00Z"));
+
+        assertTrue(result.isSuccessful());
+        Map<Task, String> worker = new IdentityHashMap<>();
+        Map<Task, Instant> lastEnd = new IdentityHashMap<>();
+        Map<Task, Integer> lastPart = new IdentityHashMap<>();
+        Map<Task, Duration> placed = new IdentityHashMap<>();
+        result.getSchedules().forEach((member, schedule) -> {
+            for (WorkPeriod p : schedule.getScheduledPeriods()) {
+                LocalDateTime t = p.getStartTime().isBefore(schedule.getScheduleStart()) ? schedule.getScheduleStart() : p.getStartTime();
+                for (TaskPart tp : p.getTaskParts()) {
+                    Task task = tp.getOwner();
+                    assertEquals(member, worker.getOrDefault(task, member), task.getDescription());
+                    Instant start = t.atZone(schedule.getZoneId()).toInstant();
+                    assertFalse(lastEnd.containsKey(task) && start.isBefore(lastEnd.get(task)), task.getDescription());
+                    assertTrue(tp.getPartSequenceNumber() > lastPart.getOrDefault(task, 0), task.getDescription());
+                    t = t.plus(tp.getDuration());
+                    worker.put(task, member);
+                    lastEnd.put(task, t.atZone(schedule.getZoneId()).toInstant());
+                    lastPart.put(task, tp.getPartSequenceNumber());
+                    placed.merge(task, tp.getDuration(), Duration::plus);
+                }
+                assertFalse(t.isAfter(p.getEndTime()));
+            }
+        });
+        assertEquals(1000, placed.size());
+        placed.forEach((task, duration) -> assertEquals(task.getDuration(), duration, task.getDescription()));
+    }
+
+    private static List<LocalDateTime> partStarts(Schedule schedule, Task task) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (WorkPeriod p : schedule.getScheduledPeriods()) {
+            LocalDateTime t = p.getStartTime();
+            for (TaskPart tp : p.getTaskParts()) {
+                if (tp.getOwner() == task) {
+                    starts.add(t);
+                }
+                t = t.plus(tp.getDuration());
+            }
+        }
+        return starts;
+    }
+}
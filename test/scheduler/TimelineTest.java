@@ -0,0 +1,86 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The columnar kernel must give the same schedule as the calendar's own greedy strategy
+class TimelineTest {
+
+    static final String[] ZONES = {"UTC", "Europe/London", "America/New_York", "Australia/Sydney", "Asia/Kolkata", "Australia/Lord_Howe"};
+
+    // across the spring transitions in the north and the autumn ones in the south
+    @Test
+    void matchesCreateScheduleAroundMarch() {
+        assertSameSchedules(LocalDateTime.of(2021, 3, 10, 0, 0));
+    }
+
+    // across the autumn transitions in the north, where an hour of local time happens twice
+    @Test
+    void matchesCreateScheduleAroundOctober() {
+        assertSameSchedules(LocalDateTime.of(2020, 10, 20, 0, 0));
+    }
+
+    // a period over the hour London's clocks go back is an hour longer than its local times say
+    @Test
+    void matchesCreateScheduleOverDstOverlap() {
+        ZoneId london = ZoneId.of("Europe/London");
+        LocalDate day = LocalDate.of(2021, 10, 31);
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        calendar.addWorkPeriod(WorkPeriod.of(day.atTime(0, 30), day.atTime(3, 0)));
+        calendar.addTask("report", 3, 30);
+        Schedule schedule = calendar.createSchedule(day, london);
+        assertTrue(schedule.isSuccessful());
+        assertEquals(dump(schedule), dump(calendar.createTimelineSchedule(day.atStartOfDay(), london)));
+    }
+
+    private static void assertSameSchedules(LocalDateTime from) {
+        for (long seed = 0; seed < 1000; seed++) {
+            Random random = new Random(seed * 7);
+            ZoneId zone = ZoneId.of(ZONES[(int) (seed % ZONES.length)]);
+            LocalDateTime start = from.plusMinutes(random.nextInt(60 * 24 * 40));
+            assertEquals(dump(calendar(from, seed).createSchedule(start, zone)),
+                    dump(calendar(from, seed).createTimelineSchedule(start, zone)), "seed " + seed);
+        }
+    }
+
+    // back to back work periods, events in a few zones over them and a backlog of tasks
+    static SchedulerCalendar calendar(LocalDateTime from, long seed) {
+        Random random = new Random(seed);
+        SchedulerCalendar calendar = new SchedulerCalendar();
+        LocalDateTime t = from.plusMinutes(random.nextInt(60 * 24 * 30));
+        int periods = 1 + random.nextInt(60);
+        for (int i = 0; i < periods; i++) {
+            t = t.plusMinutes(1 + random.nextInt(60 * 20));
+            LocalDateTime end = t.plusMinutes(10 + random.nextInt(60 * 12));
+            calendar.addWorkPeriod(WorkPeriod.of(t, end));
+            t = end;
+        }
+        ZoneId[] eventZones = {ZoneId.of("UTC"), ZoneId.of("America/New_York"), ZoneId.of("Asia/Tokyo")};
+        ZonedDateTime z = from.atZone(eventZones[random.nextInt(eventZones.length)]);
+        int events = random.nextInt(80);
+        for (int i = 0; i < events; i++) {
+            calendar.addEvent(z.plusMinutes(random.nextInt(60 * 24 * 60)), Duration.ofMinutes(random.nextInt(600)), "event " + i);
+        }
+        int tasks = random.nextInt(40);
+        for (int i = 0; i < tasks; i++) {
+            calendar.addTask("task " + i, random.nextInt(6), random.nextInt(60));
+        }
+        return calendar;
+    }
+
+    static String dump(Schedule schedule) {
+        StringBuilder sb = new StringBuilder().append(schedule.isSuccessful()).append('|');
+        for (WorkPeriod p : schedule.getScheduledPeriods()) {
+            sb.append(p.getStartTime()).append('-').append(p.getEndTime()).append('[');
+            for (TaskPart tp : p.getTaskParts()) {
+                sb.append(tp.getOwner().getDescription()).append(':').append(tp.getDuration()).append(',');
+            }
+            sb.append("];");
+        }
+        return sb.toString();
+    }
+}